@@ -0,0 +1,135 @@
+#!/usr/bin/env bash
+#
+# Benchmark de inicialização: mede, em cada modo de execução, o tempo até o primeiro token (primeiro
+# POST /api/v1/auth/register respondido com 200), o tempo até /actuator/health/readiness responder UP (após o
+# aquecimento) e o RSS do processo em cada um desses momentos.
+#
+# Modos:
+#   jvm      java -jar target/areadigital-0.0.1-SNAPSHOT.jar
+#   jvm-aot  o mesmo jar com -Dspring.aot.enabled=true (o jar precisa ter sido gerado com -Pnative)
+#   native   target/areadigital-runner
+#
+# Build:  ./mvnw -Pnative -DskipTests package    (os três modos; requer GraalVM)
+#         ./mvnw -DskipTests package             (apenas jvm)
+# Uso:    scripts/startup-benchmark.sh [-n execuções] [modo...]
+#         APP_ARGS="--warm-up.enabled=false" scripts/startup-benchmark.sh -n 10 jvm native
+#
+# Uma execução que não chega ao primeiro token ou à readiness em TIMEOUT segundos (padrão 120) interrompe o script.
+# O processo da aplicação é encerrado sempre que a medição termina, inclusive por erro ou Ctrl-C.
+#
+# Sem modos informados, mede os que tiverem artefatos em target/. O resultado de cada execução é gravado em
+# target/startup-benchmark.json (uma linha JSON por execução) e a mediana de cada modo é impressa ao final.
+
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=5
+PORT=${PORT:-18080}
+TIMEOUT=${TIMEOUT:-120}
+JAR=target/areadigital-0.0.1-SNAPSHOT.jar
+NATIVE=target/areadigital-runner
+RESULT=target/startup-benchmark.json
+
+while getopts "n:" opt; do
+    case $opt in
+        n) RUNS=$OPTARG ;;
+        *) echo "uso: $0 [-n execuções] [jvm|jvm-aot|native...]" >&2; exit 2 ;;
+    esac
+done
+shift $((OPTIND - 1))
+
+MODES=("$@")
+if [ ${#MODES[@]} -eq 0 ]; then
+    [ -f "$JAR" ] && MODES+=(jvm)
+    [ -f "$JAR" ] && unzip -l "$JAR" | grep -c '__ApplicationContextInitializer' >/dev/null && MODES+=(jvm-aot)
+    [ -x "$NATIVE" ] && MODES+=(native)
+fi
+if [ ${#MODES[@]} -eq 0 ]; then
+    echo "Nenhum artefato em target/: execute ./mvnw -DskipTests package ou ./mvnw -Pnative -DskipTests package" >&2
+    exit 1
+fi
+
+# shellcheck disable=SC2206
+ARGS=(--server.port="$PORT" ${APP_ARGS:-})
+
+command_for() {
+    case $1 in
+        jvm) echo java -jar "$JAR" ;;
+        jvm-aot) echo java -Dspring.aot.enabled=true -jar "$JAR" ;;
+        native) echo "$NATIVE" ;;
+        *) echo "modo desconhecido: $1" >&2; exit 2 ;;
+    esac
+}
+
+now_ms() { date +%s%3N; }
+rss_mb() { awk '/^VmRSS/ { printf "%.1f", $2 / 1024 }' "/proc/$1/status"; }
+
+# Mede uma execução e imprime "primeiro_token_ms rss_primeiro_token_mb readiness_ms rss_readiness_mb"
+measure() {
+    local mode=$1 run=$2 log="target/startup-$1-$2.log" start deadline pid first_token rss_first ready rss_ready
+    start=$(now_ms)
+    deadline=$((start + TIMEOUT * 1000))
+    # shellcheck disable=SC2046
+    $(command_for "$mode") "${ARGS[@]}" >"$log" 2>&1 &
+    pid=$!
+    # Roda no subshell da substituição de comando: o trap encerra a aplicação em qualquer saída, e os sinais viram
+    # uma saída normal para que o trap de EXIT seja executado
+    trap 'kill "$pid" 2>/dev/null; wait "$pid" 2>/dev/null' EXIT
+    trap 'exit 130' INT TERM
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' -X POST "http://localhost:$PORT/api/v1/auth/register" \
+            -H 'Content-Type: application/json' -d "{\"username\":\"bench-$run\",\"password\":\"bench\"}")" = 200 ]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$mode: o processo terminou antes do primeiro token, veja $log" >&2
+            exit 1
+        fi
+        if [ "$(now_ms)" -gt "$deadline" ]; then
+            echo "$mode: sem o primeiro token em ${TIMEOUT}s, veja $log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    first_token=$(($(now_ms) - start))
+    rss_first=$(rss_mb "$pid")
+    until curl -sf "http://localhost:$PORT/actuator/health/readiness" >/dev/null; do
+        if [ "$(now_ms)" -gt "$deadline" ]; then
+            echo "$mode: readiness não ficou UP em ${TIMEOUT}s, veja $log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    ready=$(($(now_ms) - start))
+    rss_ready=$(rss_mb "$pid")
+    # Encerra antes de responder, para que a próxima execução encontre a porta livre
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$first_token $rss_first $ready $rss_ready"
+}
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }'; }
+
+: >"$RESULT"
+SUMMARY=()
+for mode in "${MODES[@]}"; do
+    samples=()
+    for run in $(seq 1 "$RUNS"); do
+        # Substituição de comando, e não de processo: um subshell assíncrono ignoraria o Ctrl-C e não encerraria a
+        # aplicação; aqui um erro em measure também interrompe o script (set -e)
+        sample=$(measure "$mode" "$run")
+        read -r first_token rss_first ready rss_ready <<<"$sample"
+        echo "$mode #$run: primeiro token ${first_token} ms (${rss_first} MB), readiness ${ready} ms (${rss_ready} MB)"
+        printf '{"mode":"%s","run":%d,"timeToFirstTokenMs":%d,"rssAtFirstTokenMb":%s,"timeToReadyMs":%d,"rssAtReadyMb":%s}\n' \
+            "$mode" "$run" "$first_token" "$rss_first" "$ready" "$rss_ready" >>"$RESULT"
+        samples+=("$first_token $rss_first $ready $rss_ready")
+    done
+    SUMMARY+=("$(printf '%-8s %12s %10s %12s %10s' "$mode" \
+        "$(printf '%s\n' "${samples[@]}" | cut -d' ' -f1 | median)" \
+        "$(printf '%s\n' "${samples[@]}" | cut -d' ' -f2 | median)" \
+        "$(printf '%s\n' "${samples[@]}" | cut -d' ' -f3 | median)" \
+        "$(printf '%s\n' "${samples[@]}" | cut -d' ' -f4 | median)")")
+done
+
+echo
+echo "Mediana de $RUNS execuções"
+printf '%-8s %12s %10s %12s %10s\n' modo "1º token ms" "RSS MB" "ready ms" "RSS MB"
+printf '%s\n' "${SUMMARY[@]}"
+echo "Resultados: $RESULT"
@@ -0,0 +1,133 @@
+package br.com.areadigital.areadigital.config.security;
+
+import br.com.areadigital.areadigital.config.AppConfig;
+import br.com.areadigital.areadigital.config.TokenSigningExecutor;
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import br.com.areadigital.areadigital.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Monta, sem contexto Spring, os mesmos objetos que a aplicação registra como beans, para que os benchmarks meçam
+ * exatamente o código de produção.
+ * <p>
+ * As chaves RSA são lidas de {@code access-refresh-token-keys/}, relativo ao diretório onde o JMH é executado (a raiz
+ * do projeto, quando disparado via {@code ./mvnw -Pjmh test-compile exec:exec}). Chaves dos demais algoritmos são
+ * geradas em {@code target/jmh-keys/}.
+ */
+final class BenchmarkFixtures {
+
+    /**
+     * Registros de tokens apenas em memória, sem diretório.
+     */
+    private static final TokenSegmentStore TOKEN_SEGMENT_STORE = new TokenSegmentStore("", DataSize.ofMegabytes(16), 0.5,
+            authMetrics());
+
+    /**
+     * Tokens de acesso opacos, compartilhados pelo gerador e pelo decodificador de cada benchmark.
+     */
+    private static final OpaqueTokenStore OPAQUE_TOKEN_STORE = new OpaqueTokenStore(Duration.ofMinutes(5), TOKEN_SEGMENT_STORE);
+
+    static {
+        OPAQUE_TOKEN_STORE.load();
+    }
+
+    private BenchmarkFixtures() {
+    }
+
+    static KeyUtils keyUtils() {
+        return keyUtils(KeyAlgorithm.RSA);
+    }
+
+    static KeyUtils keyUtils(KeyAlgorithm algorithm) {
+        String directory = algorithm == KeyAlgorithm.RSA
+                ? "access-refresh-token-keys"
+                : "target/jmh-keys/" + algorithm.name().toLowerCase();
+        KeyUtils keyUtils = new KeyUtils(new StandardEnvironment(), event -> {
+        }, null);
+        ReflectionTestUtils.setField(keyUtils, "accessTokenPrivateKeyPath", directory + "/access-token-private.key");
+        ReflectionTestUtils.setField(keyUtils, "accessTokenPublicKeyPath", directory + "/access-token-public.key");
+        ReflectionTestUtils.setField(keyUtils, "refreshTokenPrivateKeyPath", directory + "/refresh-token-private.key");
+        ReflectionTestUtils.setField(keyUtils, "refreshTokenPublicKeyPath", directory + "/refresh-token-public.key");
+        ReflectionTestUtils.setField(keyUtils, "accessTokenAlgorithm", algorithm);
+        ReflectionTestUtils.setField(keyUtils, "refreshTokenAlgorithm", algorithm);
+        ReflectionTestUtils.setField(keyUtils, "accessTokenTimeToLive", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(keyUtils, "refreshTokenTimeToLive", Duration.ofDays(30));
+        return keyUtils;
+    }
+
+    static BCryptPasswordEncoder passwordEncoder() {
+        return new AppConfig().passwordEncoder(0, Duration.ofMillis(100), authMetrics());
+    }
+
+    static WebSecurity webSecurity(KeyUtils keyUtils) {
+        return new WebSecurity(new JwtToUserConverter(), keyUtils, passwordEncoder(), null, revocationList(),
+                authMetrics(), OPAQUE_TOKEN_STORE, null);
+    }
+
+    static AuthMetrics authMetrics() {
+        return new AuthMetrics(new SimpleMeterRegistry());
+    }
+
+    static AccessTokenRevocationList revocationList() {
+        return new AccessTokenRevocationList(Duration.ofMinutes(5), 10000, 0.01, TOKEN_SEGMENT_STORE);
+    }
+
+    static TokenGenerator tokenGenerator(WebSecurity webSecurity) {
+        return tokenGenerator(webSecurity, AccessTokenFormat.JWT);
+    }
+
+    static TokenGenerator tokenGenerator(WebSecurity webSecurity, AccessTokenFormat accessTokenFormat) {
+        TokenGenerator tokenGenerator = new TokenGenerator(webSecurity.jwtAccessTokenEncoder(), webSecurity.jwtRefreshTokenEncoder(),
+                new StatelessRefreshTokenStore(), OPAQUE_TOKEN_STORE, new TokenSigningExecutor(1));
+        ReflectionTestUtils.setField(tokenGenerator, "accessTokenFormat", accessTokenFormat);
+        ReflectionTestUtils.setField(tokenGenerator, "accessTokenTimeToLive", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(tokenGenerator, "refreshTokenTimeToLive", Duration.ofDays(30));
+        return tokenGenerator;
+    }
+
+    static Authentication authentication() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark@areadigital.com.br");
+        return UsernamePasswordAuthenticationToken.authenticated(user, null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")));
+    }
+
+    /**
+     * Registro de refresh tokens sem estado, no lugar do {@code RefreshTokenService}, que depende do banco; os
+     * benchmarks medem apenas a emissão.
+     */
+    private static final class StatelessRefreshTokenStore implements RefreshTokenStore {
+
+        @Override
+        public String issue(Long userId, String familyId, Instant expiresAt) {
+            return UUID.randomUUID().toString();
+        }
+
+        @Override
+        public List<String> issueAll(List<Long> userIds, Instant expiresAt) {
+            return userIds.stream().map(userId -> UUID.randomUUID().toString()).toList();
+        }
+
+        @Override
+        public String consume(String tokenId, Long userId) {
+            return tokenId;
+        }
+
+        @Override
+        public void revoke(String tokenId, Long userId) {
+        }
+    }
+}
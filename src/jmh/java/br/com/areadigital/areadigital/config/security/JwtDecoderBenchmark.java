@@ -0,0 +1,70 @@
+package br.com.areadigital.areadigital.config.security;
+
+import br.com.areadigital.areadigital.dto.TokenDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede os decodificadores criados em {@link WebSecurity#jwtAccessTokenDecoder()} e
+ * {@link WebSecurity#jwtRefreshTokenDecoder()}: verificação da assinatura, parse e validação das claims, além do
+ * acerto no {@link CachingJwtDecoder}, para cada {@link KeyAlgorithm}, e a resolução de um token opaco no
+ * {@link OpaqueTokenStore}, que substitui a verificação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtDecoderBenchmark {
+
+    @Param({"RSA", "EC", "ED25519"})
+    private KeyAlgorithm algorithm;
+
+    private JwtDecoder accessTokenDecoder;
+    private JwtDecoder refreshTokenDecoder;
+    private JwtDecoder cachingAccessTokenDecoder;
+    private String accessToken;
+    private String opaqueAccessToken;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        WebSecurity webSecurity = BenchmarkFixtures.webSecurity(BenchmarkFixtures.keyUtils(algorithm));
+        accessTokenDecoder = webSecurity.jwtAccessTokenDecoder();
+        refreshTokenDecoder = webSecurity.jwtRefreshTokenDecoder();
+        cachingAccessTokenDecoder = new CachingJwtDecoder(accessTokenDecoder, 10_000, Duration.ofMinutes(5),
+                BenchmarkFixtures.revocationList());
+
+        TokenDTO tokens = BenchmarkFixtures.tokenGenerator(webSecurity).createToken(BenchmarkFixtures.authentication());
+        accessToken = tokens.getAccessToken();
+        refreshToken = tokens.getRefreshToken();
+        opaqueAccessToken = BenchmarkFixtures.tokenGenerator(webSecurity, AccessTokenFormat.OPAQUE)
+                .createToken(BenchmarkFixtures.authentication())
+                .getAccessToken();
+    }
+
+    @Benchmark
+    public Jwt decodeAccessToken() {
+        return accessTokenDecoder.decode(accessToken);
+    }
+
+    @Benchmark
+    public Jwt decodeAccessTokenCached() {
+        return cachingAccessTokenDecoder.decode(accessToken);
+    }
+
+    @Benchmark
+    public Jwt decodeOpaqueAccessToken() {
+        return accessTokenDecoder.decode(opaqueAccessToken);
+    }
+
+    @Benchmark
+    public Jwt decodeRefreshToken() {
+        return refreshTokenDecoder.decode(refreshToken);
+    }
+}
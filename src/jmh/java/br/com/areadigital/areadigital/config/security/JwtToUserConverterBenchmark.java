@@ -0,0 +1,37 @@
+package br.com.areadigital.areadigital.config.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede {@link JwtToUserConverter#convert(Jwt)}, executado em toda requisição autenticada por token de acesso.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtToUserConverterBenchmark {
+
+    private JwtToUserConverter converter;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() {
+        WebSecurity webSecurity = BenchmarkFixtures.webSecurity(BenchmarkFixtures.keyUtils());
+        String accessToken = BenchmarkFixtures.tokenGenerator(webSecurity)
+                .createToken(BenchmarkFixtures.authentication())
+                .getAccessToken();
+        converter = new JwtToUserConverter();
+        jwt = webSecurity.jwtAccessTokenDecoder().decode(accessToken);
+    }
+
+    @Benchmark
+    public UsernamePasswordAuthenticationToken convert() {
+        return converter.convert(jwt);
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.areadigital.areadigital.config.security;
+
+import br.com.areadigital.areadigital.dto.TokenDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede {@link TokenGenerator#createToken(Authentication)}: assinatura do access token e do refresh token, como
+ * ocorre em {@code /login} e {@code /register}, para cada {@link KeyAlgorithm} e {@link AccessTokenFormat} (com
+ * {@code OPAQUE}, apenas o refresh token é assinado).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenGeneratorBenchmark {
+
+    @Param({"RSA", "EC", "ED25519"})
+    private KeyAlgorithm algorithm;
+
+    @Param({"JWT", "OPAQUE"})
+    private AccessTokenFormat format;
+
+    private TokenGenerator tokenGenerator;
+    private Authentication authentication;
+
+    @Setup
+    public void setUp() {
+        tokenGenerator = BenchmarkFixtures.tokenGenerator(BenchmarkFixtures.webSecurity(BenchmarkFixtures.keyUtils(algorithm)), format);
+        authentication = BenchmarkFixtures.authentication();
+    }
+
+    @Benchmark
+    public TokenDTO createToken() {
+        return tokenGenerator.createToken(authentication);
+    }
+}
@@ -1,17 +1,47 @@
 package br.com.areadigital.areadigital.config;
 
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
+@EnableScheduling
+@ImportRuntimeHints(NativeRuntimeHints.class)
+@Slf4j
 public class AppConfig {
 
 	
 
+	/**
+	 * Cria o encoder de senhas. Com {@code password-hashing.strength} 0, o custo do bcrypt é calibrado na
+	 * inicialização para que cada hash leve aproximadamente {@code password-hashing.target-duration} nesta máquina.
+	 * Com um custo fixo não há calibração, para não atrasar a inicialização; com o log em DEBUG, o custo adequado a
+	 * esta máquina é medido e registrado.
+	 *
+	 * @param strength o custo fixo do bcrypt, ou 0 para calibrar.
+	 * @param targetDuration o tempo desejado para cada hash quando o custo é calibrado.
+	 * @param metrics as métricas onde o tempo dos hashes é registrado.
+	 * @return o encoder de senhas.
+	 */
 	@Bean
-	public BCryptPasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	public BCryptPasswordEncoder passwordEncoder(@Value("${password-hashing.strength:0}") int strength,
+												 @Value("${password-hashing.target-duration:100ms}") Duration targetDuration,
+												 AuthMetrics metrics) {
+		if (strength > 0) {
+			if (log.isDebugEnabled()) {
+				log.debug("Custo do bcrypt fixado em {}; o custo calibrado nesta máquina é {}", strength,
+						CalibratedBCryptPasswordEncoder.calibrate(targetDuration));
+			}
+			return new CalibratedBCryptPasswordEncoder(strength, metrics);
+		}
+		return CalibratedBCryptPasswordEncoder.calibrated(targetDuration, metrics);
 	}
 
 }
@@ -0,0 +1,150 @@
+package br.com.areadigital.areadigital.config;
+
+import br.com.areadigital.areadigital.config.jfr.PasswordHashEvent;
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link BCryptPasswordEncoder} cujo custo é escolhido na inicialização, medindo o tempo de hash na máquina atual.
+ * <p>
+ * Cada incremento do custo dobra o tempo do hash, então o custo calibrado é aquele cujo tempo medido fica mais próximo
+ * do alvo configurado. Hashes armazenados com um custo menor são considerados desatualizados por
+ * {@link #upgradeEncoding(String)} e regravados no próximo login bem-sucedido; hashes com um custo maior são mantidos,
+ * para que nós com custos diferentes não regravem o mesmo hash a cada login.
+ * <p>
+ * O tempo de cada {@code encode}/{@code matches} é registrado em {@code auth.password.hash} e, com o evento habilitado,
+ * em um {@link PasswordHashEvent} do JFR.
+ */
+@Slf4j
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    /**
+     * Custo mínimo aceito na calibração, mesmo em máquinas lentas.
+     */
+    public static final int MIN_STRENGTH = 10;
+    /**
+     * Custo máximo aceito na calibração.
+     */
+    public static final int MAX_STRENGTH = 16;
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+    private static final String CALIBRATION_PASSWORD = "calibracao-do-custo-bcrypt";
+
+    /**
+     * O custo usado nos novos hashes.
+     */
+    @Getter
+    private final int strength;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public CalibratedBCryptPasswordEncoder(int strength, AuthMetrics metrics) {
+        super(strength);
+        this.strength = strength;
+        this.encodeTimer = metrics.passwordHashTimer("encode");
+        this.matchesTimer = metrics.passwordHashTimer("matches");
+    }
+
+    /**
+     * Cria um encoder com o custo cujo tempo de hash mais se aproxima de {@code target} nesta máquina.
+     *
+     * @param target  o tempo desejado para cada hash.
+     * @param metrics as métricas onde o tempo dos hashes é registrado.
+     * @return o encoder calibrado.
+     */
+    public static CalibratedBCryptPasswordEncoder calibrated(Duration target, AuthMetrics metrics) {
+        return new CalibratedBCryptPasswordEncoder(calibrate(target), metrics);
+    }
+
+    /**
+     * Mede o custo cujo tempo de hash mais se aproxima de {@code target} nesta máquina.
+     *
+     * @param target o tempo desejado para cada hash.
+     * @return o custo calibrado, entre {@value #MIN_STRENGTH} e {@value #MAX_STRENGTH}.
+     */
+    public static int calibrate(Duration target) {
+        // Aquecimento para que a primeira medição não inclua a compilação do JIT
+        new BCryptPasswordEncoder(4).encode(CALIBRATION_PASSWORD);
+
+        int strength = MIN_STRENGTH;
+        long elapsed = measure(strength);
+        while (strength < MAX_STRENGTH && elapsed < target.toNanos()) {
+            long next = measure(strength + 1);
+            // Compara em escala logarítmica: o próximo custo só vence se ficar mais perto do alvo que o atual
+            if ((double) next / target.toNanos() > (double) target.toNanos() / elapsed) {
+                break;
+            }
+            strength++;
+            elapsed = next;
+        }
+        log.info("Custo do bcrypt calibrado em {} ({} ms por hash, alvo {} ms)",
+                strength, Duration.ofNanos(elapsed).toMillis(), target.toMillis());
+        return strength;
+    }
+
+    /**
+     * Mede o tempo de um hash com o custo informado; usa a menor de duas medições para descartar pausas pontuais.
+     */
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        String encoded = encodeTimer.record(() -> super.encode(rawPassword));
+        commit(event, "encode", "success");
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        boolean matches = Boolean.TRUE.equals(matchesTimer.record(() -> super.matches(rawPassword, encodedPassword)));
+        commit(event, "matches", matches ? "match" : "mismatch");
+        return matches;
+    }
+
+    private void commit(PasswordHashEvent event, String operation, String outcome) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.strength = strength;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    /**
+     * Indica se o hash foi gerado com um custo menor que o atual.
+     *
+     * @param encodedPassword o hash armazenado.
+     * @return {@code true} se o hash deve ser regravado com o custo atual.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Encoded password does not look like BCrypt: " + encodedPassword);
+        }
+        return Integer.parseInt(matcher.group(2)) < strength;
+    }
+}
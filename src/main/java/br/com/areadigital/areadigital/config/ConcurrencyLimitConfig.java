@@ -0,0 +1,52 @@
+package br.com.areadigital.areadigital.config;
+
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import br.com.areadigital.areadigital.util.AdaptiveConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Registra o {@link ConcurrencyLimitFilter} antes da cadeia do Spring Security, com um limite adaptativo para os
+ * endpoints de autenticação e outro para os endpoints de recursos. Desabilitado com
+ * {@code concurrency-limit.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter authConcurrencyLimiter(@Value("${concurrency-limit.auth.initial-limit:20}") int initialLimit,
+                                                             @Value("${concurrency-limit.auth.min-limit:4}") int minLimit,
+                                                             @Value("${concurrency-limit.auth.max-limit:100}") int maxLimit,
+                                                             @Value("${concurrency-limit.rtt-tolerance:2.0}") double rttTolerance,
+                                                             AuthMetrics metrics) {
+        return metrics.monitor(new AdaptiveConcurrencyLimiter("auth", initialLimit, minLimit, maxLimit, rttTolerance));
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter resourceConcurrencyLimiter(@Value("${concurrency-limit.resource.initial-limit:100}") int initialLimit,
+                                                                 @Value("${concurrency-limit.resource.min-limit:10}") int minLimit,
+                                                                 @Value("${concurrency-limit.resource.max-limit:1000}") int maxLimit,
+                                                                 @Value("${concurrency-limit.rtt-tolerance:2.0}") double rttTolerance,
+                                                                 AuthMetrics metrics) {
+        return metrics.monitor(new AdaptiveConcurrencyLimiter("resource", initialLimit, minLimit, maxLimit, rttTolerance));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(@Qualifier("authConcurrencyLimiter") AdaptiveConcurrencyLimiter authLimiter,
+                                                                                 @Qualifier("resourceConcurrencyLimiter") AdaptiveConcurrencyLimiter resourceLimiter,
+                                                                                 @Value("${concurrency-limit.retry-after:1s}") Duration retryAfter,
+                                                                                 AuthMetrics metrics) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(authLimiter, resourceLimiter, metrics, Math.max(1, retryAfter.toSeconds())));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
@@ -0,0 +1,124 @@
+package br.com.areadigital.areadigital.config;
+
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import br.com.areadigital.areadigital.util.AdaptiveConcurrencyLimiter;
+import br.com.areadigital.areadigital.util.AdaptiveConcurrencyLimiter.Permit;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Limita as requisições simultâneas da API, com um {@link AdaptiveConcurrencyLimiter} para os endpoints de
+ * autenticação ({@code POST /api/v1/auth/**}, que calculam bcrypt e assinam tokens) e outro para os demais endpoints
+ * da API. Uma sobrecarga no login não ocupa as vagas dos endpoints de recursos, e vice-versa.
+ * <p>
+ * Acima do limite a requisição é recusada na hora com 503 e {@code Retry-After}, antes mesmo da verificação do token.
+ * Nas requisições assíncronas (emissão em lote e importação, que respondem em NDJSON) a vaga é liberada quando a
+ * resposta termina. Respostas 503 e timeouts
+ * contam como descarte e reduzem o limite; respostas em NDJSON (emissão em lote, importação) liberam a vaga sem entrar
+ * no cálculo, pois sua duração não é comparável à das demais.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String AUTH_PATH = "/api/v1/auth/";
+    private static final String API_PATH = "/api/";
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final AdaptiveConcurrencyLimiter authLimiter;
+    private final AdaptiveConcurrencyLimiter resourceLimiter;
+    private final AuthMetrics authMetrics;
+    private final String retryAfter;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter authLimiter,
+                                  AdaptiveConcurrencyLimiter resourceLimiter,
+                                  AuthMetrics authMetrics,
+                                  long retryAfterSeconds) {
+        this.authLimiter = authLimiter;
+        this.resourceLimiter = resourceLimiter;
+        this.authMetrics = authMetrics;
+        this.retryAfter = String.valueOf(retryAfterSeconds);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !path(request).startsWith(API_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter limiter = isAuthentication(request) ? authLimiter : resourceLimiter;
+        Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            authMetrics.concurrencyRejected(limiter.getName());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            permit.ignore();
+            throw e;
+        }
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new PermitListener(permit));
+        } else {
+            release(permit, response);
+        }
+    }
+
+    private static boolean isAuthentication(HttpServletRequest request) {
+        return HttpMethod.POST.matches(request.getMethod()) && path(request).startsWith(AUTH_PATH);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static void release(Permit permit, HttpServletResponse response) {
+        String contentType = response.getContentType();
+        if (response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            permit.dropped();
+        } else if (contentType != null && contentType.startsWith(NDJSON)) {
+            permit.ignore();
+        } else {
+            permit.success();
+        }
+    }
+
+    /**
+     * Libera a vaga de uma requisição assíncrona quando ela termina.
+     */
+    private record PermitListener(Permit permit) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(permit, (HttpServletResponse) event.getSuppliedResponse());
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.dropped();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.ignore();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
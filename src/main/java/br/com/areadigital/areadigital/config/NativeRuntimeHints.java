@@ -0,0 +1,93 @@
+package br.com.areadigital.areadigital.config;
+
+import br.com.areadigital.areadigital.dto.IssuedTokenDTO;
+import br.com.areadigital.areadigital.dto.SignupDTO;
+import br.com.areadigital.areadigital.dto.TokenDTO;
+import br.com.areadigital.areadigital.dto.UserImportErrorDTO;
+import br.com.areadigital.areadigital.dto.UserImportSummaryDTO;
+import br.com.areadigital.areadigital.repository.UserSummary;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+
+import java.security.Provider;
+import java.security.Security;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Hints para a imagem nativa (perfil {@code native}) do que a análise do Spring AOT não encontra sozinha.
+ * <p>
+ * Os hints são calculados durante o build, em uma JVM: as classes do JCA são as do provedor que atende cada algoritmo
+ * nessa JVM.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    /**
+     * Serviços do JCA usados pelas chaves ({@code KeyUtils}, {@code KeyAlgorithm}), pelos assinadores do Nimbus e pelo
+     * {@code kid}/ETag. O JCA instancia a implementação de cada serviço por reflexão.
+     */
+    private static final List<String[]> SECURITY_SERVICES = List.of(
+            new String[]{"KeyFactory", "RSA"},
+            new String[]{"KeyFactory", "EC"},
+            new String[]{"KeyFactory", "Ed25519"},
+            new String[]{"KeyPairGenerator", "RSA"},
+            new String[]{"KeyPairGenerator", "EC"},
+            new String[]{"KeyPairGenerator", "Ed25519"},
+            new String[]{"AlgorithmParameters", "EC"},
+            new String[]{"Signature", "SHA256withRSA"},
+            new String[]{"Signature", "SHA256withECDSA"},
+            new String[]{"Signature", "Ed25519"},
+            new String[]{"MessageDigest", "SHA-256"});
+
+    /**
+     * Implementações geradas do Caffeine para as combinações de opções usadas pelos caches da aplicação (cache e nó),
+     * carregadas pelo nome.
+     */
+    private static final List<String> CAFFEINE_CLASSES = List.of(
+            "com.github.benmanes.caffeine.cache.SSMS",
+            "com.github.benmanes.caffeine.cache.SSMSW",
+            "com.github.benmanes.caffeine.cache.SSSMS",
+            "com.github.benmanes.caffeine.cache.SSSMSA",
+            "com.github.benmanes.caffeine.cache.SSSMSW",
+            "com.github.benmanes.caffeine.cache.PSMS",
+            "com.github.benmanes.caffeine.cache.PSWMS",
+            "com.github.benmanes.caffeine.cache.PSWMW");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String[] service : SECURITY_SERVICES) {
+            for (Provider provider : Security.getProviders()) {
+                Provider.Service implementation = provider.getService(service[0], service[1]);
+                if (implementation != null) {
+                    hints.reflection().registerType(TypeReference.of(implementation.getClassName()),
+                            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+                    break;
+                }
+            }
+        }
+
+        for (String className : CAFFEINE_CLASSES) {
+            hints.reflection().registerType(TypeReference.of(className), MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+
+        // Serializados diretamente com o ObjectMapper nas respostas em NDJSON e na leitura da importação
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                IssuedTokenDTO.class, TokenDTO.class, UserImportErrorDTO.class, UserImportSummaryDTO.class,
+                SignupDTO.class);
+
+        // Projeção do Spring Data, implementada por um proxy JDK
+        hints.proxies().registerJdkProxy(UserSummary.class, TargetAware.class, SpringProxy.class, DecoratingProxy.class);
+
+        // Executors.newVirtualThreadPerTaskExecutor, obtido por reflexão em VirtualThreadsConfig
+        hints.reflection().registerType(Executors.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // Páginas e scripts do console do H2, empacotados em um zip
+        hints.resources().registerPattern("org/h2/util/data.zip");
+    }
+}
@@ -0,0 +1,146 @@
+package br.com.areadigital.areadigital.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Estágio dedicado ao trabalho de hash de senhas (bcrypt), que é intensivo em CPU.
+ * <p>
+ * O pool tem tamanho fixo, por padrão igual ao número de núcleos, e uma fila limitada. Como a thread da requisição
+ * fica bloqueada enquanto espera o hash, o número de threads esperando em {@link #call(Supplier)} também é limitado
+ * ({@code password-hashing.max-waiters}, no máximo metade de {@code server.tomcat.threads.max}): uma rajada de logins
+ * ocupa no máximo essas threads do Tomcat, e não todas, e o excesso é recusado imediatamente com
+ * {@link RejectedExecutionException} em vez de enfileirar até o cliente desistir.
+ * <p>
+ * Apenas o bcrypt ({@code encode}/{@code matches}) roda no estágio: a busca do usuário, a gravação e a assinatura dos
+ * tokens continuam na thread da requisição, que espera o hash com {@link #call(Supplier)} ou pelo
+ * {@link #encoder(PasswordEncoder)}, para que I/O bloqueante não ocupe as threads dimensionadas pelos núcleos.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    /**
+     * Vagas para as threads que esperam o resultado em {@link #call(Supplier)}.
+     */
+    private final Semaphore waiters;
+    /**
+     * O número de threads do estágio.
+     */
+    @Getter
+    private final int parallelism;
+
+    public PasswordHashingExecutor(@Value("${password-hashing.pool-size:0}") int poolSize,
+                                   @Value("${password-hashing.max-waiters:0}") int maxWaiters,
+                                   @Value("${password-hashing.queue-capacity:0}") int queueCapacity,
+                                   @Value("${server.tomcat.threads.max:200}") int requestThreads) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.parallelism = threads;
+        // Sempre bem abaixo das threads do Tomcat, para que os demais endpoints continuem sendo atendidos
+        int waiterLimit = Math.max(1, requestThreads / 2);
+        int waiterCount = Math.min(maxWaiters > 0 ? maxWaiters : 4 * threads, waiterLimit);
+        if (maxWaiters > waiterLimit) {
+            log.warn("password-hashing.max-waiters ({}) reduzido para {}, metade de server.tomcat.threads.max",
+                    maxWaiters, waiterLimit);
+        }
+        this.waiters = new Semaphore(waiterCount);
+        int capacity = queueCapacity > 0 ? queueCapacity : waiterCount;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Estágio de hash de senhas: {} threads, {} requisições esperando no máximo, fila de {}",
+                threads, waiterCount, capacity);
+    }
+
+    /**
+     * Executa a tarefa no estágio de hash.
+     *
+     * @param task a tarefa que calcula ou verifica o hash.
+     * @param <T>  o tipo do resultado.
+     * @return o resultado da tarefa; falha com {@link RejectedExecutionException} se o estágio estiver saturado.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Executa a tarefa no estágio de hash e espera o resultado na thread atual.
+     *
+     * @param task a tarefa que calcula ou verifica o hash.
+     * @param <T>  o tipo do resultado.
+     * @return o resultado da tarefa.
+     * @throws RejectedExecutionException se o estágio estiver saturado ou se já houver
+     *                                    {@code password-hashing.max-waiters} threads esperando.
+     */
+    public <T> T call(Supplier<T> task) {
+        if (!waiters.tryAcquire()) {
+            throw new RejectedExecutionException("Too many requests waiting for password hashing");
+        }
+        try {
+            return submit(task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            waiters.release();
+        }
+    }
+
+    /**
+     * Cria um {@link PasswordEncoder} que calcula e verifica os hashes de {@code delegate} no estágio de hash.
+     *
+     * @param delegate o encoder que calcula os hashes.
+     * @return o encoder; {@code encode} e {@code matches} lançam {@link RejectedExecutionException} se o estágio
+     * estiver saturado.
+     */
+    public PasswordEncoder encoder(PasswordEncoder delegate) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return call(() -> delegate.encode(rawPassword));
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return call(() -> delegate.matches(rawPassword, encodedPassword));
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return delegate.upgradeEncoding(encodedPassword);
+            }
+        };
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,108 @@
+package br.com.areadigital.areadigital.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Estágio dedicado à assinatura de tokens em lote ({@code /api/v1/auth/batch}), separado do {@code ForkJoinPool}
+ * comum, que é compartilhado com o restante da aplicação.
+ * <p>
+ * O pool tem tamanho fixo, por padrão igual ao número de núcleos, e uma fila do mesmo tamanho. Quando a fila está
+ * cheia, por exemplo com vários lotes ao mesmo tempo, a parte excedente é executada na própria thread do lote, que
+ * assim deixa de enfileirar trabalho novo até a sua parte terminar.
+ */
+@Component
+@Slf4j
+public class TokenSigningExecutor {
+
+    private final ThreadPoolExecutor executor;
+    /**
+     * O número de threads do estágio.
+     */
+    @Getter
+    private final int parallelism;
+
+    public TokenSigningExecutor(@Value("${token-batch.pool-size:0}") int poolSize) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.parallelism = threads;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "token-signing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        log.info("Estágio de assinatura de tokens em lote: {} threads", threads);
+    }
+
+    /**
+     * Executa a ação para cada elemento, dividindo a lista entre as threads do estágio e a thread atual, e espera
+     * todas terminarem. A ação é chamada de várias threads ao mesmo tempo. Uma exceção lançada para um elemento
+     * interrompe os demais e é relançada aqui.
+     *
+     * @param items  os elementos.
+     * @param action a ação executada para cada elemento.
+     * @param <T>    o tipo dos elementos.
+     */
+    public <T> void forEach(List<T> items, Consumer<? super T> action) {
+        int slices = Math.min(parallelism, items.size());
+        if (slices <= 1) {
+            items.forEach(action);
+            return;
+        }
+        AtomicBoolean failed = new AtomicBoolean();
+        int sliceSize = (items.size() + slices - 1) / slices;
+        List<CompletableFuture<Void>> futures = new ArrayList<>(slices - 1);
+        for (int from = sliceSize; from < items.size(); from += sliceSize) {
+            List<T> slice = items.subList(from, Math.min(from + sliceSize, items.size()));
+            futures.add(CompletableFuture.runAsync(() -> run(slice, action, failed), executor));
+        }
+        try {
+            run(items.subList(0, sliceSize), action, failed);
+        } finally {
+            try {
+                CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static <T> void run(List<T> slice, Consumer<? super T> action, AtomicBoolean failed) {
+        try {
+            for (T item : slice) {
+                if (failed.get()) {
+                    return;
+                }
+                action.accept(item);
+            }
+        } catch (RuntimeException e) {
+            failed.set(true);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
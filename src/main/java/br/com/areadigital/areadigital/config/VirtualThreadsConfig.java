@@ -0,0 +1,48 @@
+package br.com.areadigital.areadigital.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executa as requisições do Tomcat em virtual threads, quando {@code virtual-threads.enabled} estiver ativo.
+ * <p>
+ * As partes bloqueantes do atendimento (JDBC, espera pelo estágio de hash) deixam de prender threads de plataforma;
+ * o trabalho de CPU continua limitado pelo {@link PasswordHashingExecutor}. Virtual threads exigem Java 21: em JVMs
+ * anteriores a configuração é ignorada e o pool padrão do Tomcat é mantido.
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(name = "virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        return protocolHandler -> {
+            if (executor != null) {
+                protocolHandler.setExecutor(executor);
+            }
+        };
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            // Obtido por reflexão para que o projeto continue compilando com Java 17
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            log.info("Requisições do Tomcat serão executadas em virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            log.warn("virtual-threads.enabled ignorado: virtual threads exigem Java 21 (atual: {})",
+                    Runtime.version());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package br.com.areadigital.areadigital.config;
+
+import br.com.areadigital.areadigital.config.security.CompactJwtEncoder;
+import br.com.areadigital.areadigital.config.security.CompactJwtEncoder.CompactJwt;
+import br.com.areadigital.areadigital.config.security.KeyUtils;
+import br.com.areadigital.areadigital.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Aquece a aplicação antes que ela passe a receber tráfego.
+ * <p>
+ * O Spring Boot só publica {@code ReadinessState.ACCEPTING_TRAFFIC} (e {@code /actuator/health/readiness} só responde
+ * {@code UP}) depois que os {@link ApplicationRunner}s terminam. Até lá, este runner:
+ * <ul>
+ *     <li>carrega em paralelo as chaves dos tokens de acesso e de atualização, que de outro modo seriam lidas no
+ *     primeiro login;</li>
+ *     <li>assina e verifica tokens sintéticos com cada chave, o que falha a inicialização se um par de chaves não
+ *     corresponder, e repete o ciclo até que o tempo médio de um lote fique dentro de {@code warm-up.tolerance} do lote
+ *     anterior, isto é, até o JIT compilar o caminho de assinatura e verificação;</li>
+ *     <li>faz o mesmo com o cálculo e a verificação de hashes bcrypt;</li>
+ *     <li>executa uma vez as consultas do {@link UserRepository}, inicializando o Hibernate e o pool de conexões.</li>
+ * </ul>
+ * Os ciclos que não estabilizarem em {@code warm-up.timeout} são interrompidos com um aviso, sem impedir a
+ * inicialização. Os ciclos sintéticos passam pelos mesmos encoders e decoders das requisições e, portanto, aparecem
+ * nas métricas {@code auth.jwt.*} e {@code auth.password.hash}.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "warm-up.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final String USERNAME = "warm-up";
+    private static final int JWT_BATCH_SIZE = 50;
+    private static final int JWT_MIN_CYCLES = 500;
+    private static final int PASSWORD_HASH_BATCH_SIZE = 2;
+    private static final int PASSWORD_HASH_MIN_CYCLES = 4;
+
+    private final KeyUtils keyUtils;
+    private final CompactJwtEncoder accessTokenEncoder;
+    @Qualifier("jwtRefreshTokenEncoder")
+    private final CompactJwtEncoder refreshTokenEncoder;
+    private final JwtDecoder accessTokenDecoder;
+    @Qualifier("jwtRefreshTokenDecoder")
+    private final JwtDecoder refreshTokenDecoder;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+
+    @Value("${warm-up.timeout:30s}")
+    private Duration timeout;
+
+    @Value("${warm-up.tolerance:0.1}")
+    private double tolerance;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        Instant deadline = Instant.now().plus(timeout);
+
+        join(CompletableFuture.allOf(
+                CompletableFuture.runAsync(keyUtils::getAccessTokenKeys),
+                CompletableFuture.runAsync(keyUtils::getRefreshTokenKeys)));
+
+        join(CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> repeatUntilStable("tokens de acesso", JWT_BATCH_SIZE, JWT_MIN_CYCLES,
+                        () -> signAndVerify(accessTokenEncoder, accessTokenDecoder), deadline)),
+                CompletableFuture.runAsync(() -> repeatUntilStable("tokens de atualização", JWT_BATCH_SIZE, JWT_MIN_CYCLES,
+                        () -> signAndVerify(refreshTokenEncoder, refreshTokenDecoder), deadline)),
+                CompletableFuture.runAsync(() -> repeatUntilStable("bcrypt", PASSWORD_HASH_BATCH_SIZE, PASSWORD_HASH_MIN_CYCLES,
+                        this::hashAndMatch, deadline)),
+                CompletableFuture.runAsync(this::runUserQueries)));
+
+        log.info("Aquecimento concluído em {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    /**
+     * Assina um token sintético e o verifica com o decoder correspondente.
+     *
+     * @throws IllegalStateException se o token verificado não for o assinado (ex.: chave pública de outro par).
+     */
+    private static void signAndVerify(CompactJwtEncoder encoder, JwtDecoder decoder) {
+        Instant now = Instant.now();
+        String tokenId = UUID.randomUUID().toString();
+        String claims = "{\"iss\":\"" + USERNAME + "\",\"sub\":\"" + USERNAME + "\",\"iat\":" + now.getEpochSecond()
+                + ",\"exp\":" + now.plusSeconds(60).getEpochSecond() + ",\"jti\":\"" + tokenId + "\"}";
+        CompactJwt token = encoder.encode(claims.getBytes(StandardCharsets.UTF_8));
+        Jwt jwt = decoder.decode(token.tokenValue());
+        if (!tokenId.equals(jwt.getId())) {
+            throw new IllegalStateException("Token signed with key " + token.keyId() + " failed verification during warm-up");
+        }
+    }
+
+    private void hashAndMatch() {
+        if (!passwordEncoder.matches(USERNAME, passwordEncoder.encode(USERNAME))) {
+            throw new IllegalStateException("bcrypt hash failed verification during warm-up");
+        }
+    }
+
+    private void runUserQueries() {
+        List<String> usernames = List.of(USERNAME);
+        userRepository.findByUsername(USERNAME);
+        userRepository.existsByUsername(USERNAME);
+        userRepository.findAllByUsernameIn(usernames);
+        userRepository.findExistingUsernames(usernames);
+        userRepository.findUsernamesAfter(USERNAME, PageRequest.ofSize(1));
+        userRepository.findSummaryById(0L);
+    }
+
+    /**
+     * Executa o ciclo em lotes até cumprir {@code minCycles} e o tempo médio de um lote ficar dentro de
+     * {@code warm-up.tolerance} do lote anterior, ou até {@code deadline}.
+     */
+    private void repeatUntilStable(String name, int batchSize, int minCycles, Runnable cycle, Instant deadline) {
+        double previous = Double.NaN;
+        int cycles = 0;
+        while (Instant.now().isBefore(deadline)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < batchSize; i++) {
+                cycle.run();
+            }
+            cycles += batchSize;
+            double average = (double) (System.nanoTime() - start) / batchSize;
+            if (cycles >= minCycles && Math.abs(average - previous) <= tolerance * previous) {
+                log.info("Aquecimento de {}: {} ciclos, {} µs por ciclo", name, cycles, Math.round(average / 1000));
+                return;
+            }
+            previous = average;
+        }
+        log.warn("Aquecimento de {} interrompido após {} ciclos sem estabilizar (último lote: {} µs por ciclo)",
+                name, cycles, Math.round(previous / 1000));
+    }
+
+    private static void join(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package br.com.areadigital.areadigital.config.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Verificação de um JWT por um dos decodificadores da aplicação.
+ */
+@Name("br.com.areadigital.JwtVerification")
+@Label("JWT Verification")
+@Category({"Areadigital", "Authentication"})
+@Description("Verificação da assinatura e das claims de um token")
+@Enabled(false)
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Token Type")
+    @Description("access ou refresh")
+    public String tokenType;
+
+    @Label("Key Id")
+    public String keyId;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Error")
+    public String error;
+}
@@ -0,0 +1,32 @@
+package br.com.areadigital.areadigital.config.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Cálculo ou verificação de um hash bcrypt.
+ */
+@Name("br.com.areadigital.PasswordHash")
+@Label("Password Hash")
+@Category({"Areadigital", "Authentication"})
+@Description("Hash ou verificação de senha com bcrypt")
+@Enabled(false)
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+
+    @Label("Operation")
+    @Description("encode ou matches")
+    public String operation;
+
+    @Label("Strength")
+    @Description("Custo do bcrypt usado nos novos hashes")
+    public int strength;
+
+    @Label("Outcome")
+    public String outcome;
+}
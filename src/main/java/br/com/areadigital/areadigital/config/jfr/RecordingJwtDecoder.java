@@ -0,0 +1,59 @@
+package br.com.areadigital.areadigital.config.jfr;
+
+import com.nimbusds.jwt.JWTParser;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.text.ParseException;
+
+/**
+ * Grava um {@link JwtVerificationEvent} para cada token verificado pelo decodificador delegado.
+ */
+public class RecordingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final String tokenType;
+
+    public RecordingJwtDecoder(JwtDecoder delegate, String tokenType) {
+        this.delegate = delegate;
+        this.tokenType = tokenType;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        try {
+            Jwt jwt = delegate.decode(token);
+            if (event.shouldCommit()) {
+                event.tokenType = tokenType;
+                event.keyId = (String) jwt.getHeaders().get("kid");
+                event.outcome = "success";
+                event.commit();
+            }
+            return jwt;
+        } catch (RuntimeException e) {
+            if (event.shouldCommit()) {
+                event.tokenType = tokenType;
+                event.keyId = keyId(token);
+                event.outcome = "failure";
+                event.error = e.getMessage();
+                event.commit();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * O {@code kid} do cabeçalho de um token recusado, se ele puder ser lido.
+     */
+    private static String keyId(String token) {
+        try {
+            Object keyId = JWTParser.parse(token).getHeader().toJSONObject().get("kid");
+            return keyId != null ? keyId.toString() : null;
+        } catch (ParseException | RuntimeException e) {
+            return null;
+        }
+    }
+}
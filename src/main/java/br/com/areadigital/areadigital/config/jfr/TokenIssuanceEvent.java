@@ -0,0 +1,37 @@
+package br.com.areadigital.areadigital.config.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emissão de um par de tokens de acesso e de atualização, no login ou na renovação.
+ */
+@Name("br.com.areadigital.TokenIssuance")
+@Label("Token Issuance")
+@Category({"Areadigital", "Authentication"})
+@Description("Emissão do token de acesso e do refresh token")
+@Enabled(false)
+@StackTrace(false)
+public class TokenIssuanceEvent extends Event {
+
+    @Label("Grant Type")
+    @Description("password (login) ou refresh_token (renovação)")
+    public String grantType;
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Access Token Key Id")
+    public String accessTokenKeyId;
+
+    @Label("Refresh Token Key Id")
+    public String refreshTokenKeyId;
+
+    @Label("Outcome")
+    public String outcome;
+}
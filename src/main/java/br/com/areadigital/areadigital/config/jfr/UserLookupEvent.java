@@ -0,0 +1,28 @@
+package br.com.areadigital.areadigital.config.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Busca de um usuário pelo username, no cache ou no banco.
+ */
+@Name("br.com.areadigital.UserLookup")
+@Label("User Lookup")
+@Category({"Areadigital", "Authentication"})
+@Description("Carga de um usuário pelo UserDetailsService")
+@Enabled(false)
+@StackTrace(false)
+public class UserLookupEvent extends Event {
+
+    @Label("Source")
+    @Description("cache ou database")
+    public String source;
+
+    @Label("Outcome")
+    public String outcome;
+}
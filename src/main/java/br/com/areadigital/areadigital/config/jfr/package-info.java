@@ -0,0 +1,11 @@
+/**
+ * Eventos do Java Flight Recorder do fluxo de autenticação: emissão e verificação de tokens, busca de usuários e hash
+ * de senhas.
+ * <p>
+ * Os eventos vêm desabilitados e só são gravados com o arquivo de configuração {@code jfr/auth.jfc}; desabilitados,
+ * custam apenas a verificação de {@code shouldCommit()}. Exemplo:
+ * <pre>
+ * java -XX:StartFlightRecording:settings=default,settings=jfr/auth.jfc,filename=auth.jfr -jar target/areadigital-0.0.1-SNAPSHOT.jar
+ * </pre>
+ */
+package br.com.areadigital.areadigital.config.jfr;
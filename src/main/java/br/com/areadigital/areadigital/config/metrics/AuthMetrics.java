@@ -0,0 +1,186 @@
+package br.com.areadigital.areadigital.config.metrics;
+
+import br.com.areadigital.areadigital.util.AdaptiveConcurrencyLimiter;
+import br.com.areadigital.areadigital.util.CountingBloomFilter;
+import br.com.areadigital.areadigital.util.SegmentLog;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Métricas do fluxo de autenticação, expostas em {@code /actuator/prometheus}.
+ * <p>
+ * Os timers publicam histogramas de percentis, para que p99 possa ser calculado no Prometheus por operação:
+ * <ul>
+ *     <li>{@code auth.password.hash}: bcrypt, por {@code operation} ({@code encode}/{@code matches});</li>
+ *     <li>{@code auth.jwt.encode}: assinatura, por {@code token} ({@code access}/{@code refresh});</li>
+ *     <li>{@code auth.jwt.decode}: verificação, por {@code token} e {@code outcome} ({@code success}/{@code failure}).</li>
+ * </ul>
+ * Os contadores são marcados por {@code outcome}: {@code auth.login}, {@code auth.refresh} e, para os caches,
+ * {@code auth.cache} ({@code hit}/{@code miss}, por {@code cache}) e as verificações de username,
+ * {@code auth.username.check}. As consultas ao {@code UserRepository} e as requisições de cada endpoint são medidas
+ * pelo Spring Boot ({@code spring.data.repository.invocations} e {@code http.server.requests}).
+ * <p>
+ * Os limites de concorrência publicam o limite atual e as requisições em andamento ({@code concurrency.limit} e
+ * {@code concurrency.in.flight}) e as recusadas ({@code concurrency.rejected}), por {@code limiter}.
+ * <p>
+ * O armazenamento de tokens em segmentos publica o número de segmentos e os bytes gravados
+ * ({@code token.store.segments} e {@code token.store.bytes}).
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthMetrics {
+
+    public static final String ACCESS_TOKEN = "access";
+    public static final String REFRESH_TOKEN = "refresh";
+
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+
+    private final MeterRegistry registry;
+
+    public Timer passwordHashTimer(String operation) {
+        return Timer.builder("auth.password.hash")
+                .description("Tempo de cálculo e verificação de hashes bcrypt")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public Timer jwtEncodeTimer(String tokenType) {
+        return Timer.builder("auth.jwt.encode")
+                .description("Tempo de assinatura dos tokens")
+                .tag("token", tokenType)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public Timer jwtDecodeTimer(String tokenType, String outcome) {
+        return Timer.builder("auth.jwt.decode")
+                .description("Tempo de verificação dos tokens")
+                .tag("token", tokenType)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Conta uma tentativa de login.
+     *
+     * @param outcome {@code success}, {@code failure} (credenciais inválidas) ou {@code rejected} (estágio de hash
+     *                saturado).
+     */
+    public void login(String outcome) {
+        Counter.builder("auth.login")
+                .description("Tentativas de login")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Conta uma renovação de tokens.
+     *
+     * @param outcome {@code rotated}, {@code coalesced} (resposta compartilhada), {@code reused} (refresh token
+     *                reutilizado, família revogada) ou {@code invalid}.
+     */
+    public void refresh(String outcome) {
+        Counter.builder("auth.refresh")
+                .description("Renovações de tokens")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Publica os acertos e faltas de um cache Caffeine criado com {@code recordStats()}. O registro guarda apenas uma
+     * referência fraca para {@code source}, que deve ser mantido pelo seu dono.
+     *
+     * @param name   o nome do cache, usado na tag {@code cache}.
+     * @param source o cache, ou o objeto que o contém.
+     * @param stats  extrai as estatísticas do cache de {@code source}.
+     */
+    public <T> void monitor(String name, T source, Function<T, CacheStats> stats) {
+        FunctionCounter.builder("auth.cache", source, s -> stats.apply(s).hitCount())
+                .description("Consultas aos caches de autenticação")
+                .tag("cache", name)
+                .tag("outcome", "hit")
+                .register(registry);
+        FunctionCounter.builder("auth.cache", source, s -> stats.apply(s).missCount())
+                .description("Consultas aos caches de autenticação")
+                .tag("cache", name)
+                .tag("outcome", "miss")
+                .register(registry);
+    }
+
+    /**
+     * Conta as verificações de username pelo filtro de Bloom: {@code absent} (descartado pelo filtro, sem consulta),
+     * {@code present} ou {@code false_positive} (confirmado no banco).
+     */
+    public void usernameCheck(String outcome) {
+        Counter.builder("auth.username.check")
+                .description("Verificações de disponibilidade de username")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Publica o tamanho e a taxa de falsos positivos esperada do filtro de usernames.
+     */
+    public void usernameFilter(CountingBloomFilter filter) {
+        Gauge.builder("auth.username.filter.false.positive.rate", filter, CountingBloomFilter::expectedFalsePositiveRate)
+                .description("Taxa de falsos positivos esperada do filtro de usernames")
+                .register(registry);
+        Gauge.builder("auth.username.filter.size", filter, CountingBloomFilter::size)
+                .description("Usernames no filtro")
+                .register(registry);
+    }
+
+    /**
+     * Publica o limite atual e as requisições em andamento do limite de concorrência.
+     *
+     * @return o próprio limite.
+     */
+    public AdaptiveConcurrencyLimiter monitor(AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Limite atual de requisições simultâneas")
+                .tag("limiter", limiter.getName())
+                .register(registry);
+        Gauge.builder("concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requisições em andamento")
+                .tag("limiter", limiter.getName())
+                .register(registry);
+        return limiter;
+    }
+
+    /**
+     * Publica o número de segmentos e os bytes gravados no log de tokens.
+     */
+    public void tokenStore(SegmentLog log) {
+        Gauge.builder("token.store.segments", log, SegmentLog::segmentCount)
+                .description("Segmentos do log de tokens")
+                .register(registry);
+        Gauge.builder("token.store.bytes", log, SegmentLog::bytes)
+                .description("Bytes gravados no log de tokens, incluindo registros expirados")
+                .register(registry);
+    }
+
+    /**
+     * Conta uma requisição recusada pelo limite de concorrência.
+     */
+    public void concurrencyRejected(String limiter) {
+        Counter.builder("concurrency.rejected")
+                .description("Requisições recusadas pelo limite de concorrência")
+                .tag("limiter", limiter)
+                .register(registry)
+                .increment();
+    }
+}
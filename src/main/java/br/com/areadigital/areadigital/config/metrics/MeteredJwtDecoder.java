@@ -0,0 +1,37 @@
+package br.com.areadigital.areadigital.config.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede o tempo de verificação do decodificador delegado, separando os tokens aceitos dos recusados.
+ */
+public class MeteredJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Timer successTimer;
+    private final Timer failureTimer;
+
+    public MeteredJwtDecoder(JwtDecoder delegate, AuthMetrics metrics, String tokenType) {
+        this.delegate = delegate;
+        this.successTimer = metrics.jwtDecodeTimer(tokenType, AuthMetrics.SUCCESS);
+        this.failureTimer = metrics.jwtDecodeTimer(tokenType, AuthMetrics.FAILURE);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long start = System.nanoTime();
+        try {
+            Jwt jwt = delegate.decode(token);
+            successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return jwt;
+        } catch (RuntimeException e) {
+            failureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+}
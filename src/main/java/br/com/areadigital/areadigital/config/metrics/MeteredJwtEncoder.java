@@ -0,0 +1,43 @@
+package br.com.areadigital.areadigital.config.metrics;
+
+import br.com.areadigital.areadigital.config.security.CompactJwtEncoder;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede o tempo de assinatura do codificador delegado.
+ */
+public class MeteredJwtEncoder implements CompactJwtEncoder {
+
+    private final CompactJwtEncoder delegate;
+    private final Timer timer;
+
+    public MeteredJwtEncoder(CompactJwtEncoder delegate, Timer timer) {
+        this.delegate = delegate;
+        this.timer = timer;
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        long start = System.nanoTime();
+        try {
+            return delegate.encode(parameters);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public CompactJwt encode(byte[] claimsJson) throws JwtEncodingException {
+        long start = System.nanoTime();
+        try {
+            return delegate.encode(claimsJson);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
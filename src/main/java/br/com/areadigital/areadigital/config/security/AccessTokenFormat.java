@@ -0,0 +1,18 @@
+package br.com.areadigital.areadigital.config.security;
+
+/**
+ * Formato dos tokens de acesso emitidos pelo {@link TokenGenerator}, definido por {@code access-token.format}.
+ */
+public enum AccessTokenFormat {
+
+    /**
+     * JWT assinado com a chave ativa dos tokens de acesso, verificável por qualquer serviço com o JWKS.
+     */
+    JWT,
+
+    /**
+     * Referência opaca e curta às claims, guardadas no {@link OpaqueTokenStore} deste nó. Outros serviços validam o
+     * token pelo endpoint de introspecção.
+     */
+    OPAQUE
+}
@@ -0,0 +1,162 @@
+package br.com.areadigital.areadigital.config.security;
+
+import br.com.areadigital.areadigital.util.BloomFilter;
+import br.com.areadigital.areadigital.util.SegmentLog.Record;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Lista de tokens de acesso revogados antes do {@code exp}, identificados pelo {@code jti}.
+ * <p>
+ * Os tokens revogados são agrupados em gerações pelo {@code exp}, cada uma cobrindo uma janela do tamanho do tempo de
+ * vida do token de acesso. Cada geração tem um {@link BloomFilter}, consultado em toda requisição, e o conjunto exato
+ * dos {@code jti}, consultado apenas quando o filtro indica que o token pode estar revogado. Quando todos os tokens de
+ * uma geração expiram (considerando a tolerância de relógio do {@code JwtTimestampValidator}), a geração é descartada,
+ * de modo que a memória usada depende apenas das revogações dentro do tempo de vida de um token.
+ * <p>
+ * Cada revogação também é gravada no {@link TokenSegmentStore} e reaplicada na inicialização, de modo que um token
+ * revogado continua recusado depois de um reinício.
+ */
+@Component
+@Slf4j
+public class AccessTokenRevocationList implements OAuth2TokenValidator<Jwt>, TokenSegmentStore.RecordOwner {
+
+    /**
+     * Tolerância de relógio padrão do {@code JwtTimestampValidator}: um token ainda é aceito até este tempo após o
+     * {@code exp}.
+     */
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(60);
+
+    private static final OAuth2Error REVOKED = new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "The token has been revoked", null);
+
+    private final long windowSeconds;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final TokenSegmentStore tokenSegmentStore;
+    private final ConcurrentNavigableMap<Long, Generation> generations = new ConcurrentSkipListMap<>();
+
+    public AccessTokenRevocationList(@Value("${access-token.time-to-live:5m}") Duration accessTokenTimeToLive,
+                                     @Value("${access-token.revocation.expected-revocations:10000}") long expectedRevocations,
+                                     @Value("${access-token.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                     TokenSegmentStore tokenSegmentStore) {
+        this.windowSeconds = Math.max(1, accessTokenTimeToLive.toSeconds());
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.tokenSegmentStore = tokenSegmentStore;
+    }
+
+    @PostConstruct
+    void load() {
+        tokenSegmentStore.register(this, TokenSegmentStore.ACCESS_TOKEN_REVOKED);
+    }
+
+    /**
+     * Revoga o token até o seu {@code exp}.
+     *
+     * @param tokenId   o {@code jti} do token.
+     * @param expiresAt o {@code exp} do token.
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (add(tokenId, expiresAt)) {
+            tokenSegmentStore.append(TokenSegmentStore.ACCESS_TOKEN_REVOKED, expiresAt, tokenId, new byte[0]);
+        }
+    }
+
+    /**
+     * Inclui o token na geração do seu {@code exp}.
+     *
+     * @return {@code false} se o token já expirou.
+     */
+    private boolean add(String tokenId, Instant expiresAt) {
+        Instant now = Instant.now();
+        if (expiresAt.plus(CLOCK_SKEW).isBefore(now)) {
+            return false;
+        }
+        Generation generation = generations.computeIfAbsent(bucket(expiresAt),
+                key -> new Generation(new BloomFilter(expectedRevocations, falsePositiveRate), ConcurrentHashMap.newKeySet()));
+        // O conjunto exato antes do filtro: quem vê o bit no filtro sempre encontra o jti no conjunto
+        generation.tokenIds.add(tokenId);
+        generation.filter.put(tokenId);
+        purgeExpired(now);
+        return true;
+    }
+
+    /**
+     * Indica se o token foi revogado.
+     *
+     * @param tokenId   o {@code jti} do token.
+     * @param expiresAt o {@code exp} do token.
+     * @return {@code true} se o token foi revogado.
+     */
+    public boolean isRevoked(String tokenId, Instant expiresAt) {
+        purgeExpired(Instant.now());
+        Generation generation = generations.get(bucket(expiresAt));
+        return generation != null && generation.filter.mightContain(tokenId) && generation.tokenIds.contains(tokenId);
+    }
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        // Tokens sem jti foram emitidos antes da revogação existir e não podem ter sido revogados
+        if (jwt.getId() == null || jwt.getExpiresAt() == null || !isRevoked(jwt.getId(), jwt.getExpiresAt())) {
+            return OAuth2TokenValidatorResult.success();
+        }
+        return OAuth2TokenValidatorResult.failure(REVOKED);
+    }
+
+    /**
+     * O número de tokens revogados ainda não expirados.
+     */
+    public int size() {
+        return generations.values().stream().mapToInt(generation -> generation.tokenIds.size()).sum();
+    }
+
+    @Override
+    public void replay(Record record) {
+        add(record.key(), Instant.ofEpochSecond(record.expiresAt()));
+    }
+
+    /**
+     * Uma revogação é mantida até o token expirar.
+     */
+    @Override
+    public boolean isLive(Record record) {
+        return true;
+    }
+
+    @Override
+    public void relocate(Record record) {
+        tokenSegmentStore.copy(record);
+    }
+
+    private long bucket(Instant expiresAt) {
+        return Math.floorDiv(expiresAt.getEpochSecond(), windowSeconds);
+    }
+
+    private void purgeExpired(Instant now) {
+        long oldestLive = bucket(now.minus(CLOCK_SKEW));
+        Map.Entry<Long, Generation> oldest;
+        while ((oldest = generations.firstEntry()) != null && oldest.getKey() < oldestLive) {
+            if (generations.remove(oldest.getKey(), oldest.getValue())) {
+                log.debug("Geração {} da lista de revogação descartada ({} tokens)", oldest.getKey(), oldest.getValue().tokenIds.size());
+            }
+        }
+    }
+
+    private record Generation(BloomFilter filter, Set<String> tokenIds) {
+    }
+}
@@ -0,0 +1,106 @@
+package br.com.areadigital.areadigital.config.security;
+
+import br.com.areadigital.areadigital.util.TokenDigest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Decodificador JWT que mantém em memória os tokens já verificados pelo decodificador delegado.
+ * <p>
+ * A chave do cache é o SHA-256 do token, de modo que o valor do token não fica retido em memória. O cache é limitado
+ * por tamanho e cada entrada expira no {@code exp} do próprio token (ou antes, se {@code maxTimeToLive} for menor).
+ * Tokens inválidos não são armazenados: a exceção do delegado é propagada e a próxima chamada verifica novamente.
+ * <p>
+ * Validações cujo resultado pode mudar enquanto o token está no cache (como a revogação) são repetidas a cada acerto
+ * pelo {@code hitValidator}.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Cache<ByteBuffer, Jwt> cache;
+    private final OAuth2TokenValidator<Jwt> hitValidator;
+
+    /**
+     * Cria o decodificador com cache.
+     *
+     * @param delegate       o decodificador que efetivamente verifica a assinatura e as claims.
+     * @param maximumSize    o número máximo de tokens mantidos em memória.
+     * @param maxTimeToLive  o tempo máximo que um token permanece no cache, independente do seu {@code exp}.
+     * @param hitValidator   a validação repetida quando o token é encontrado no cache.
+     */
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize, Duration maxTimeToLive,
+                             OAuth2TokenValidator<Jwt> hitValidator) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.hitValidator = Objects.requireNonNull(hitValidator);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(maxTimeToLive))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * As estatísticas de acertos e faltas do cache.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        ByteBuffer key = TokenDigest.sha256(token);
+        Jwt jwt = cache.getIfPresent(key);
+        if (jwt == null) {
+            jwt = delegate.decode(token);
+            cache.put(key, jwt);
+            return jwt;
+        }
+        OAuth2TokenValidatorResult result = hitValidator.validate(jwt);
+        if (result.hasErrors()) {
+            throw new JwtValidationException(result.getErrors().iterator().next().getDescription(), result.getErrors());
+        }
+        return jwt;
+    }
+
+    /**
+     * Faz cada entrada expirar no {@code exp} do token, limitado a {@code maxTimeToLive}.
+     */
+    private record TokenExpiry(Duration maxTimeToLive) implements Expiry<ByteBuffer, Jwt> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Jwt jwt, long currentTime) {
+            Instant expiresAt = jwt.getExpiresAt();
+            if (expiresAt == null) {
+                return maxTimeToLive.toNanos();
+            }
+            Duration remaining = Duration.between(Instant.now(), expiresAt);
+            if (remaining.isNegative()) {
+                return 0;
+            }
+            return Math.min(remaining.toNanos(), maxTimeToLive.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
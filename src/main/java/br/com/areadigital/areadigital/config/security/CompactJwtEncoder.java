@@ -0,0 +1,29 @@
+package br.com.areadigital.areadigital.config.security;
+
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+
+/**
+ * {@link JwtEncoder} que também assina claims já serializadas em JSON, sem montar um {@code JwtClaimsSet} nem o
+ * {@code Jwt} de retorno. Usado na emissão de tokens, que monta o payload diretamente.
+ */
+public interface CompactJwtEncoder extends JwtEncoder {
+
+    /**
+     * Assina o payload com a chave ativa.
+     *
+     * @param claimsJson as claims do token, em JSON UTF-8.
+     * @return o token na serialização compacta e o {@code kid} da chave que o assinou.
+     * @throws JwtEncodingException se a assinatura falhar.
+     */
+    CompactJwt encode(byte[] claimsJson) throws JwtEncodingException;
+
+    /**
+     * Um token assinado.
+     *
+     * @param tokenValue o token na serialização compacta ({@code cabeçalho.payload.assinatura}).
+     * @param keyId      o {@code kid} da chave que o assinou.
+     */
+    record CompactJwt(String tokenValue, String keyId) {
+    }
+}
@@ -3,19 +3,35 @@ package br.com.areadigital.areadigital.config.security;
 import br.com.areadigital.areadigital.model.User;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A classe JwtToUserConverter é responsável por converter um JWT (JSON Web Token) em um objeto UsernamePasswordAuthenticationToken.
  * <p>
  * Esta classe é anotada com @Component para ser automaticamente registrada como um bean do Spring.
+ * <p>
+ * As authorities vêm da claim {@link TokenGenerator#ROLES_CLAIM}, sem acesso ao banco. Apenas os tokens de acesso
+ * trazem a claim; os refresh tokens são convertidos sem authorities, que são recarregadas na renovação. Como há poucas combinações de
+ * papéis, cada valor distinto da claim é convertido uma única vez e a mesma lista imutável é compartilhada entre as
+ * requisições.
  */
 @Component
 public class JwtToUserConverter implements Converter<Jwt, UsernamePasswordAuthenticationToken> {
 
+    /**
+     * Authorities já convertidas, pelo valor da claim.
+     */
+    private final Map<String, List<GrantedAuthority>> authoritiesByRoles = new ConcurrentHashMap<>();
+
     /**
      * Converte um JWT em um objeto UsernamePasswordAuthenticationToken.
      *
@@ -26,8 +42,15 @@ public class JwtToUserConverter implements Converter<Jwt, UsernamePasswordAuthen
     public UsernamePasswordAuthenticationToken convert(Jwt jwt) {
         User user = new User();
         user.setId(Long.valueOf(jwt.getSubject()));
-        return new UsernamePasswordAuthenticationToken(user, jwt, Collections.emptyList());
+        return new UsernamePasswordAuthenticationToken(user, jwt, authorities(jwt.getClaimAsString(TokenGenerator.ROLES_CLAIM)));
     }
-}
-
 
+    private List<GrantedAuthority> authorities(String roles) {
+        if (roles == null || roles.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return authoritiesByRoles.computeIfAbsent(roles, value -> Arrays.stream(value.split(" "))
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList());
+    }
+}
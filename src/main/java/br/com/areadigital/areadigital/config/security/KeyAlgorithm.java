@@ -0,0 +1,172 @@
+package br.com.areadigital.areadigital.config.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+
+/**
+ * Algoritmos suportados para as chaves que assinam os tokens de acesso e de atualização.
+ * <p>
+ * Cada algoritmo define o nome usado pelo JCA para gerar e carregar as chaves, o algoritmo JWS correspondente, como
+ * criar o assinador dos tokens e como publicar a chave pública em um JWK.
+ */
+public enum KeyAlgorithm {
+
+    /**
+     * RSA de 2048 bits, assinando com RS256.
+     */
+    RSA("RSA", JWSAlgorithm.RS256) {
+        @Override
+        void initialize(KeyPairGenerator keyPairGenerator) {
+            keyPairGenerator.initialize(2048);
+        }
+
+        @Override
+        JWSSigner createSigner(PrivateKey privateKey) {
+            return new RSASSASigner(privateKey);
+        }
+
+        @Override
+        JWK toJwk(PublicKey publicKey, String keyId) {
+            return new RSAKey.Builder((RSAPublicKey) publicKey)
+                    .keyUse(KeyUse.SIGNATURE).algorithm(getJwsAlgorithm()).keyID(keyId).build();
+        }
+    },
+
+    /**
+     * Curva elíptica P-256, assinando com ES256.
+     */
+    EC("EC", JWSAlgorithm.ES256) {
+        @Override
+        void initialize(KeyPairGenerator keyPairGenerator) throws GeneralSecurityException {
+            keyPairGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        }
+
+        @Override
+        JWSSigner createSigner(PrivateKey privateKey) throws JOSEException {
+            return new ECDSASigner((ECPrivateKey) privateKey);
+        }
+
+        @Override
+        JWK toJwk(PublicKey publicKey, String keyId) {
+            return new ECKey.Builder(Curve.P_256, (ECPublicKey) publicKey)
+                    .keyUse(KeyUse.SIGNATURE).algorithm(getJwsAlgorithm()).keyID(keyId).build();
+        }
+    },
+
+    /**
+     * Ed25519, assinando com EdDSA através da implementação nativa do JDK.
+     */
+    ED25519("Ed25519", JWSAlgorithm.EdDSA) {
+        @Override
+        void initialize(KeyPairGenerator keyPairGenerator) {
+        }
+
+        @Override
+        JWSSigner createSigner(PrivateKey privateKey) {
+            return new Ed25519Jca.Signer(privateKey);
+        }
+
+        @Override
+        JWK toJwk(PublicKey publicKey, String keyId) {
+            // A codificação X.509 de uma chave Ed25519 termina com os 32 bytes da chave pública (RFC 8410)
+            byte[] encoded = publicKey.getEncoded();
+            Base64URL x = Base64URL.encode(Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length));
+            return new OctetKeyPair.Builder(Curve.Ed25519, x)
+                    .keyUse(KeyUse.SIGNATURE).algorithm(getJwsAlgorithm()).keyID(keyId).build();
+        }
+    };
+
+    /**
+     * Quantidade de caracteres do thumbprint (RFC 7638) usados como {@code kid}: 96 bits bastam para identificar as
+     * poucas chaves ativas sem aumentar o cabeçalho de cada token.
+     */
+    private static final int KEY_ID_LENGTH = 16;
+
+    private final String jcaName;
+    private final JWSAlgorithm jwsAlgorithm;
+
+    KeyAlgorithm(String jcaName, JWSAlgorithm jwsAlgorithm) {
+        this.jcaName = jcaName;
+        this.jwsAlgorithm = jwsAlgorithm;
+    }
+
+    /**
+     * Retorna o nome do algoritmo no JCA, usado com {@code KeyFactory} e {@code KeyPairGenerator}.
+     *
+     * @return o nome do algoritmo no JCA.
+     */
+    public String getJcaName() {
+        return jcaName;
+    }
+
+    /**
+     * Retorna o algoritmo JWS utilizado para assinar os tokens com este tipo de chave.
+     *
+     * @return o algoritmo JWS.
+     */
+    public JWSAlgorithm getJwsAlgorithm() {
+        return jwsAlgorithm;
+    }
+
+    /**
+     * Gera um novo par de chaves deste algoritmo.
+     *
+     * @return o par de chaves gerado.
+     * @throws GeneralSecurityException se o algoritmo não estiver disponível no JCA.
+     */
+    public KeyPair generateKeyPair() throws GeneralSecurityException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance(jcaName);
+        initialize(keyPairGenerator);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    abstract void initialize(KeyPairGenerator keyPairGenerator) throws GeneralSecurityException;
+
+    /**
+     * Cria o assinador JWS para a chave privada informada. O assinador é thread-safe e pode ser reutilizado.
+     *
+     * @param privateKey a chave privada deste algoritmo.
+     * @return o assinador JWS.
+     * @throws JOSEException se a chave não for compatível com o algoritmo.
+     */
+    abstract JWSSigner createSigner(PrivateKey privateKey) throws JOSEException;
+
+    abstract JWK toJwk(PublicKey publicKey, String keyId);
+
+    /**
+     * Cria o JWK público da chave, identificado pelo {@code kid} derivado do seu thumbprint. A mesma chave produz
+     * sempre o mesmo {@code kid}, em qualquer nó.
+     *
+     * @param publicKey a chave pública deste algoritmo.
+     * @return o JWK público, com {@code kid}, {@code use} e {@code alg}.
+     */
+    public JWK toPublicJwk(PublicKey publicKey) {
+        try {
+            String thumbprint = toJwk(publicKey, null).computeThumbprint().toString();
+            return toJwk(publicKey, thumbprint.substring(0, KEY_ID_LENGTH));
+        } catch (JOSEException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
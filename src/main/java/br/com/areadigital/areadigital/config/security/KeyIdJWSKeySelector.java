@@ -0,0 +1,51 @@
+package br.com.areadigital.areadigital.config.security;
+
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.proc.JWSKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Seleciona a chave de verificação de um token pelo {@code kid} do seu cabeçalho.
+ * <p>
+ * A busca é uma única consulta ao índice do {@link TokenKeySet} atual, sem percorrer um {@code JWKSet}. Tokens sem
+ * {@code kid}, emitidos antes da identificação das chaves, são verificados com as chaves aceitas do mesmo algoritmo.
+ */
+public class KeyIdJWSKeySelector implements JWSKeySelector<SecurityContext> {
+
+    private final Supplier<TokenKeySet> keys;
+
+    /**
+     * Cria o seletor para as chaves informadas.
+     *
+     * @param keys fornece o conjunto de chaves atual.
+     */
+    public KeyIdJWSKeySelector(Supplier<TokenKeySet> keys) {
+        this.keys = keys;
+    }
+
+    @Override
+    public List<? extends Key> selectJWSKeys(JWSHeader header, SecurityContext context) {
+        TokenKeySet keySet = keys.get();
+        String keyId = header.getKeyID();
+        if (keyId != null) {
+            TokenKeySet.VerificationKey key = keySet.getVerificationKey(keyId);
+            if (key == null || !key.algorithm().getJwsAlgorithm().equals(header.getAlgorithm())) {
+                return List.of();
+            }
+            return List.of(key.publicKey());
+        }
+
+        List<Key> candidates = new ArrayList<>(1);
+        for (TokenKeySet.VerificationKey key : keySet.getVerificationKeys()) {
+            if (key.algorithm().getJwsAlgorithm().equals(header.getAlgorithm())) {
+                candidates.add(key.publicKey());
+            }
+        }
+        return candidates;
+    }
+}
@@ -1,34 +1,72 @@
 package br.com.areadigital.areadigital.config.security;
 
+import br.com.areadigital.areadigital.model.ChangeType;
+import br.com.areadigital.areadigital.model.KeyRotation;
+import br.com.areadigital.areadigital.repository.KeyRotationRepository;
+import br.com.areadigital.areadigital.service.ChangeLogListener;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.env.Environment;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.security.*;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
 import java.security.spec.EncodedKeySpec;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Objects;
+import java.util.List;
 
 /**
  * Classe utilitária responsável por gerenciar e fornecer as chaves públicas e privadas utilizadas para assinar e
  * verificar os tokens JWT.
+ * <p>
+ * As chaves de cada tipo de token formam um {@link TokenKeySet} identificado por {@code kid}. Com
+ * {@code access-token.rotation-cron}/{@code refresh-token.rotation-cron}, um novo par é gerado periodicamente sem
+ * reiniciar a aplicação; a chave pública anterior é arquivada ao lado do arquivo configurado e continua aceita até
+ * que os tokens assinados por ela expirem.
+ * <p>
+ * Em um cluster, os arquivos de chave devem estar em um volume compartilhado. O cron dispara em todos os nós, mas
+ * apenas um gera o novo par: cada rotação é reservada na tabela {@code tb_key_rotation} por uma atualização
+ * condicional, que só um nó consegue fazer por ciclo do cron. Esse nó publica um {@link KeysRotatedEvent}, registrado
+ * no change log, e os demais recarregam as chaves dos arquivos.
  */
 @Component
 @Slf4j
 @RequiredArgsConstructor
-public class KeyUtils {
+public class KeyUtils implements ChangeLogListener {
+    private static final String RETIRED_KEY_SUFFIX = ".retired";
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(60);
+    private static final String TENANT_PUBLIC_KEY = "access-token-public.key";
+    private static final String TENANT_PRIVATE_KEY = "access-token-private.key";
+
+    private static final String ACCESS_TOKEN_ROTATION = "access-token";
+    private static final String REFRESH_TOKEN_ROTATION = "refresh-token";
+
     private final Environment environment;
+    private final ApplicationEventPublisher eventPublisher;
+    private final KeyRotationRepository keyRotationRepository;
 
     @Value("${access-token.private}")
     private String accessTokenPrivateKeyPath;
@@ -42,51 +80,303 @@ public class KeyUtils {
     @Value("${refresh-token.public}")
     private String refreshTokenPublicKeyPath;
 
-    private KeyPair _accessTokenKeyPair;
-    private KeyPair _refreshTokenKeyPair;
+    @Value("${tenants.keys-directory:access-refresh-token-keys/tenants}")
+    private String tenantKeysDirectory;
+
+    @Value("${access-token.algorithm:RSA}")
+    private KeyAlgorithm accessTokenAlgorithm;
+
+    @Value("${refresh-token.algorithm:RSA}")
+    private KeyAlgorithm refreshTokenAlgorithm;
+
+    @Value("${access-token.time-to-live:5m}")
+    private Duration accessTokenTimeToLive;
+
+    @Value("${refresh-token.time-to-live:30d}")
+    private Duration refreshTokenTimeToLive;
+
+    @Value("${access-token.rotation-cron:-}")
+    private String accessTokenRotationCron;
+
+    @Value("${refresh-token.rotation-cron:-}")
+    private String refreshTokenRotationCron;
+
+    private volatile TokenKeySet accessTokenKeys;
+    private volatile TokenKeySet refreshTokenKeys;
+    // Locks separados para que as chaves de acesso e de atualização possam ser carregadas em paralelo
+    private final Object accessTokenKeysLock = new Object();
+    private final Object refreshTokenKeysLock = new Object();
 
     /**
-     * Obtém o par de chaves utilizado para assinar e verificar os tokens de acesso.
+     * Obtém as chaves utilizadas para assinar e verificar os tokens de acesso.
+     * <p>
+     * As chaves são carregadas na primeira chamada; as seguintes apenas leem o conjunto atual, que é substituído por
+     * inteiro a cada rotação.
      *
-     * @return o par de chaves utilizado para assinar e verificar os tokens de acesso.
+     * @return as chaves dos tokens de acesso.
      */
-    private KeyPair getAccessTokenKeyPair() {
-        if (Objects.isNull(_accessTokenKeyPair)) {
-            _accessTokenKeyPair = getKeyPair(accessTokenPublicKeyPath, accessTokenPrivateKeyPath);
+    public TokenKeySet getAccessTokenKeys() {
+        TokenKeySet keys = accessTokenKeys;
+        if (keys == null) {
+            synchronized (accessTokenKeysLock) {
+                if (accessTokenKeys == null) {
+                    accessTokenKeys = getKeySet(accessTokenPublicKeyPath, accessTokenPrivateKeyPath,
+                            accessTokenAlgorithm, accessTokenTimeToLive);
+                }
+                keys = accessTokenKeys;
+            }
         }
-        return _accessTokenKeyPair;
+        return keys;
     }
 
     /**
-     * Obtém o par de chaves utilizado para assinar e verificar os tokens de atualização.
+     * Obtém as chaves utilizadas para assinar e verificar os tokens de atualização.
      *
-     * @return o par de chaves utilizado para assinar e verificar os tokens de atualização.
+     * @return as chaves dos tokens de atualização.
      */
-    private KeyPair getRefreshTokenKeyPair() {
-        if (Objects.isNull(_refreshTokenKeyPair)) {
-            _refreshTokenKeyPair = getKeyPair(refreshTokenPublicKeyPath, refreshTokenPrivateKeyPath);
+    public TokenKeySet getRefreshTokenKeys() {
+        TokenKeySet keys = refreshTokenKeys;
+        if (keys == null) {
+            synchronized (refreshTokenKeysLock) {
+                if (refreshTokenKeys == null) {
+                    refreshTokenKeys = getKeySet(refreshTokenPublicKeyPath, refreshTokenPrivateKeyPath,
+                            refreshTokenAlgorithm, refreshTokenTimeToLive);
+                }
+                keys = refreshTokenKeys;
+            }
         }
-        return _refreshTokenKeyPair;
+        return keys;
     }
 
     /**
-     * Obtém o par de chaves a partir dos caminhos dos arquivos contendo as chaves pública e privada.
-     * Caso os arquivos não existam, um novo par de chaves é gerado e armazenado em disco.
+     * Garante que as chaves dos tokens de acesso de um tenant existam em {@code tenants.keys-directory/<tenant>/},
+     * gerando-as se os arquivos não existirem (exceto no perfil prod, em que a ausência é um erro). Chamado apenas na
+     * inicialização, para os tenants de {@code tenants.allowed}.
+     *
+     * @param tenantId o id do tenant, já validado.
+     */
+    public void provisionTenantAccessTokenKeys(String tenantId) {
+        Path directory = Path.of(tenantKeysDirectory, tenantId);
+        getKeyPair(directory.resolve(TENANT_PUBLIC_KEY).toString(), directory.resolve(TENANT_PRIVATE_KEY).toString(),
+                accessTokenAlgorithm, true);
+    }
+
+    /**
+     * Carrega as chaves dos tokens de acesso de um tenant, de {@code tenants.keys-directory/<tenant>/}, com o algoritmo
+     * e a validade dos tokens de acesso. Ao contrário das demais, as chaves nunca são geradas aqui, pois a carga
+     * acontece durante uma requisição: um tenant sem chaves é recusado. Não são guardadas aqui nem rotacionadas: quem
+     * as mantém é o {@link TenantIssuers}.
+     *
+     * @param tenantId o id do tenant, já validado.
+     * @return as chaves dos tokens de acesso do tenant.
+     * @throws RuntimeException se as chaves do tenant não existirem.
+     */
+    public TokenKeySet getTenantAccessTokenKeys(String tenantId) {
+        Path directory = Path.of(tenantKeysDirectory, tenantId);
+        return getKeySet(directory.resolve(TENANT_PUBLIC_KEY).toString(),
+                directory.resolve(TENANT_PRIVATE_KEY).toString(), accessTokenAlgorithm, accessTokenTimeToLive, false);
+    }
+
+    /**
+     * Gera um novo par de chaves para os tokens de acesso e o torna ativo. A chave anterior continua aceita até que
+     * o último token assinado por ela expire. Se outro nó já rotacionou as chaves neste ciclo do cron, não faz nada:
+     * as chaves novas chegam pelo change log.
+     */
+    @Scheduled(cron = "${access-token.rotation-cron:-}")
+    public synchronized void rotateAccessTokenKeys() {
+        if (!claimRotation(ACCESS_TOKEN_ROTATION, accessTokenRotationCron)) {
+            return;
+        }
+        accessTokenKeys = rotate(getAccessTokenKeys(), accessTokenPublicKeyPath, accessTokenPrivateKeyPath,
+                accessTokenAlgorithm, accessTokenTimeToLive);
+        eventPublisher.publishEvent(new KeysRotatedEvent(true));
+    }
+
+    /**
+     * Gera um novo par de chaves para os tokens de atualização e o torna ativo. A chave anterior continua aceita até
+     * que o último token assinado por ela expire. Se outro nó já rotacionou as chaves neste ciclo do cron, não faz
+     * nada.
+     */
+    @Scheduled(cron = "${refresh-token.rotation-cron:-}")
+    public synchronized void rotateRefreshTokenKeys() {
+        if (!claimRotation(REFRESH_TOKEN_ROTATION, refreshTokenRotationCron)) {
+            return;
+        }
+        refreshTokenKeys = rotate(getRefreshTokenKeys(), refreshTokenPublicKeyPath, refreshTokenPrivateKeyPath,
+                refreshTokenAlgorithm, refreshTokenTimeToLive);
+        eventPublisher.publishEvent(new KeysRotatedEvent(false));
+    }
+
+    /**
+     * Reserva a rotação para este nó: avança {@code rotatedAt} se a última rotação tiver acontecido há mais de meio
+     * ciclo do cron. Os nós disparados pelo mesmo ciclo (com alguma diferença de relógio) encontram a rotação recente
+     * e desistem.
+     *
+     * @param id   o tipo de chave.
+     * @param cron a expressão cron da rotação; {@code -} (rotação apenas manual) sempre permite a rotação.
+     * @return {@code true} se este nó deve rotacionar as chaves.
+     */
+    private boolean claimRotation(String id, String cron) {
+        Instant now = Instant.now();
+        Instant before = now.minus(minRotationInterval(cron));
+        if (keyRotationRepository.claim(id, now, before) == 1) {
+            return true;
+        }
+        if (keyRotationRepository.existsById(id)) {
+            log.info("Chaves {} já rotacionadas por outro nó neste ciclo", id);
+            return false;
+        }
+        try {
+            keyRotationRepository.saveAndFlush(KeyRotation.builder().id(id).rotatedAt(now).build());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Outro nó registrou a primeira rotação ao mesmo tempo
+            log.info("Chaves {} já rotacionadas por outro nó neste ciclo", id);
+            return false;
+        }
+    }
+
+    private static Duration minRotationInterval(String cron) {
+        if (Scheduled.CRON_DISABLED.equals(cron)) {
+            return Duration.ZERO;
+        }
+        CronExpression expression = CronExpression.parse(cron);
+        LocalDateTime next = expression.next(LocalDateTime.now());
+        LocalDateTime following = next == null ? null : expression.next(next);
+        return following == null ? Duration.ZERO : Duration.between(next, following).dividedBy(2);
+    }
+
+    /**
+     * Recarrega dos arquivos as chaves rotacionadas por outro nó.
+     */
+    @Override
+    public synchronized void apply(ChangeType type, String payload) {
+        if (type == ChangeType.ACCESS_TOKEN_KEYS_ROTATED) {
+            accessTokenKeys = getKeySet(accessTokenPublicKeyPath, accessTokenPrivateKeyPath, accessTokenAlgorithm,
+                    accessTokenTimeToLive);
+        } else if (type == ChangeType.REFRESH_TOKEN_KEYS_ROTATED) {
+            refreshTokenKeys = getKeySet(refreshTokenPublicKeyPath, refreshTokenPrivateKeyPath, refreshTokenAlgorithm,
+                    refreshTokenTimeToLive);
+        }
+    }
+
+    /**
+     * Carrega o par de chaves ativo e as chaves aposentadas que ainda podem ter tokens válidos.
      *
      * @param publicKeyPath  o caminho para o arquivo contendo a chave pública.
      * @param privateKeyPath o caminho para o arquivo contendo a chave privada.
+     * @param algorithm      o algoritmo das chaves.
+     * @param timeToLive     a validade dos tokens assinados com estas chaves.
+     * @return o conjunto de chaves.
+     */
+    private TokenKeySet getKeySet(String publicKeyPath, String privateKeyPath, KeyAlgorithm algorithm,
+                                  Duration timeToLive) {
+        return getKeySet(publicKeyPath, privateKeyPath, algorithm, timeToLive, true);
+    }
+
+    private TokenKeySet getKeySet(String publicKeyPath, String privateKeyPath, KeyAlgorithm algorithm,
+                                  Duration timeToLive, boolean generateMissing) {
+        TokenKeySet keys = TokenKeySet.of(algorithm,
+                getKeyPair(publicKeyPath, privateKeyPath, algorithm, generateMissing));
+        for (TokenKeySet.VerificationKey retired : getRetiredKeys(publicKeyPath, timeToLive)) {
+            keys = keys.withRetired(retired);
+        }
+        log.info("Chaves carregadas de {}: ativa {}, {} chave(s) aceita(s)", publicKeyPath,
+                keys.getSigningKey().keyId(), keys.getVerificationKeys().size());
+        return keys;
+    }
+
+    /**
+     * Gera e grava um novo par de chaves, arquivando a chave pública atual para que os tokens já emitidos continuem
+     * válidos, inclusive após um reinício.
+     */
+    private TokenKeySet rotate(TokenKeySet keys, String publicKeyPath, String privateKeyPath, KeyAlgorithm algorithm,
+                               Duration timeToLive) {
+        Instant now = Instant.now();
+        TokenKeySet.SigningKey current = keys.getSigningKey();
+        try {
+            KeyPair keyPair = algorithm.generateKeyPair();
+
+            Path publicKeyFile = Path.of(publicKeyPath);
+            Path retiredKeyFile = publicKeyFile.resolveSibling(MessageFormat.format("{0}.{1}.{2}{3}",
+                    publicKeyFile.getFileName(), current.algorithm(), current.keyId(), RETIRED_KEY_SUFFIX));
+            Files.move(writeTemporary(retiredKeyFile, Files.readAllBytes(publicKeyFile)), retiredKeyFile,
+                    StandardCopyOption.ATOMIC_MOVE);
+            Files.setLastModifiedTime(retiredKeyFile, FileTime.from(now));
+
+            writeKeyPair(keyPair, publicKeyPath, privateKeyPath);
+
+            TokenKeySet rotated = keys.rotate(algorithm, keyPair, retiredUntil(now, timeToLive), now);
+            log.info("Chaves de {} rotacionadas: {} -> {}", publicKeyPath, current.keyId(),
+                    rotated.getSigningKey().keyId());
+            return rotated;
+        } catch (GeneralSecurityException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Lê as chaves públicas arquivadas por rotações anteriores, removendo as que não têm mais tokens válidos.
+     */
+    private List<TokenKeySet.VerificationKey> getRetiredKeys(String publicKeyPath, Duration timeToLive) {
+        Path publicKeyFile = Path.of(publicKeyPath).toAbsolutePath();
+        String prefix = publicKeyFile.getFileName() + ".";
+        List<TokenKeySet.VerificationKey> retiredKeys = new ArrayList<>();
+        Instant now = Instant.now();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(publicKeyFile.getParent(),
+                prefix + "*" + RETIRED_KEY_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                // <chave pública>.<algoritmo>.<kid>.retired
+                KeyAlgorithm algorithm = KeyAlgorithm.valueOf(name.substring(prefix.length(), name.indexOf('.', prefix.length())));
+                Instant retiredUntil = retiredUntil(Files.getLastModifiedTime(file).toInstant(), timeToLive);
+                if (!retiredUntil.isAfter(now)) {
+                    log.info("Removendo chave aposentada sem tokens válidos: {}", file);
+                    Files.delete(file);
+                    continue;
+                }
+                PublicKey publicKey = KeyFactory.getInstance(algorithm.getJcaName())
+                        .generatePublic(new X509EncodedKeySpec(Files.readAllBytes(file)));
+                retiredKeys.add(TokenKeySet.VerificationKey.retired(algorithm, publicKey, retiredUntil));
+            }
+        } catch (NoSuchFileException e) {
+            return retiredKeys;
+        } catch (GeneralSecurityException | IOException e) {
+            throw new RuntimeException(e);
+        }
+        return retiredKeys;
+    }
+
+    /**
+     * Uma chave aposentada em {@code retiredAt} continua aceita pela validade dos tokens, mais a tolerância de relógio
+     * aplicada na validação do {@code exp}.
+     */
+    private static Instant retiredUntil(Instant retiredAt, Duration timeToLive) {
+        return retiredAt.plus(timeToLive).plus(CLOCK_SKEW);
+    }
+
+    /**
+     * Obtém o par de chaves a partir dos caminhos dos arquivos contendo as chaves pública e privada.
+     * Caso os arquivos não existam, um novo par de chaves é gerado e armazenado em disco.
+     *
+     * @param publicKeyPath   o caminho para o arquivo contendo a chave pública.
+     * @param privateKeyPath  o caminho para o arquivo contendo a chave privada.
+     * @param algorithm       o algoritmo das chaves.
+     * @param generateMissing se um par ausente pode ser gerado; nunca no perfil prod.
      * @return o par de chaves obtido ou gerado.
      */
-    private KeyPair getKeyPair(String publicKeyPath, String privateKeyPath) {
+    private KeyPair getKeyPair(String publicKeyPath, String privateKeyPath, KeyAlgorithm algorithm,
+                               boolean generateMissing) {
         KeyPair keyPair;
 
         File publicKeyFile = new File(publicKeyPath);
         File privateKeyFile = new File(privateKeyPath);
 
         if (publicKeyFile.exists() && privateKeyFile.exists()) {
-            log.info("Carregando chaves a partir dos arquivos: {}, {}", publicKeyPath, privateKeyPath);
+            log.info("Carregando chaves {} a partir dos arquivos: {}, {}", algorithm, publicKeyPath, privateKeyPath);
             try {
-                KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+                KeyFactory keyFactory = KeyFactory.getInstance(algorithm.getJcaName());
 
                 byte[] publicKeyBytes = Files.readAllBytes(publicKeyFile.toPath());
                 EncodedKeySpec publicKeySpec = new X509EncodedKeySpec(publicKeyBytes);
@@ -98,17 +388,20 @@ public class KeyUtils {
 
                 keyPair = new KeyPair(publicKey, privateKey);
                 return keyPair;
-            } catch (NoSuchAlgorithmException | IOException | InvalidKeySpecException e) {
+            } catch (InvalidKeySpecException e) {
+                throw new RuntimeException(MessageFormat.format(
+                        "As chaves {0}, {1} não são chaves {2}", publicKeyPath, privateKeyPath, algorithm), e);
+            } catch (NoSuchAlgorithmException | IOException e) {
                 throw new RuntimeException(e);
             }
         } else {
-            if (Arrays.asList(environment.getActiveProfiles()).contains("prod")) {
+            if (!generateMissing || Arrays.asList(environment.getActiveProfiles()).contains("prod")) {
                 throw new RuntimeException("As chaves pública e privada não existem.");
             }
         }
 
 
-        File directory = new File("access-refresh-token-keys");
+        File directory = publicKeyFile.getAbsoluteFile().getParentFile();
         if (!directory.exists()) {
             boolean tokensDirectory = directory.mkdirs();
 
@@ -117,20 +410,10 @@ public class KeyUtils {
             }
         }
         try {
-            log.info("Generating new public and private keys: {}, {}", publicKeyPath, privateKeyPath);
-            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-            keyPairGenerator.initialize(2048);
-            keyPair = keyPairGenerator.generateKeyPair();
-            try (FileOutputStream fos = new FileOutputStream(publicKeyPath)) {
-                X509EncodedKeySpec keySpec = new X509EncodedKeySpec(keyPair.getPublic().getEncoded());
-                fos.write(keySpec.getEncoded());
-            }
-
-            try (FileOutputStream fos = new FileOutputStream(privateKeyPath)) {
-                PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(keyPair.getPrivate().getEncoded());
-                fos.write(keySpec.getEncoded());
-            }
-        } catch (NoSuchAlgorithmException | IOException e) {
+            log.info("Generating new {} public and private keys: {}, {}", algorithm, publicKeyPath, privateKeyPath);
+            keyPair = algorithm.generateKeyPair();
+            writeKeyPair(keyPair, publicKeyPath, privateKeyPath);
+        } catch (GeneralSecurityException | IOException e) {
             throw new RuntimeException(e);
         }
 
@@ -138,38 +421,65 @@ public class KeyUtils {
     }
 
     /**
-     * Retorna a chave pública do access token.
-     *
-     * @return RSAPublicKey contendo a chave pública do access token.
+     * Grava o par de chaves nos arquivos informados, nos formatos X.509 (pública) e PKCS#8 (privada).
+     * <p>
+     * Cada chave é gravada por inteiro em um arquivo temporário no mesmo diretório e movida atomicamente para o lugar
+     * do arquivo atual: uma falha durante a gravação (ou um disco cheio) mantém o par anterior, e um nó que recarrega
+     * as chaves nunca lê um arquivo pela metade. As duas chaves são gravadas antes de qualquer substituição, para que
+     * o intervalo em que o par fica misturado se reduza às duas renomeações.
      */
-    public RSAPublicKey getAccessTokenPublicKey() {
-        return (RSAPublicKey) getAccessTokenKeyPair().getPublic();
+    private static void writeKeyPair(KeyPair keyPair, String publicKeyPath, String privateKeyPath) throws IOException {
+        Path publicKeyFile = Path.of(publicKeyPath);
+        Path privateKeyFile = Path.of(privateKeyPath);
+        Path publicKeyTemporary = writeTemporary(publicKeyFile,
+                new X509EncodedKeySpec(keyPair.getPublic().getEncoded()).getEncoded());
+        Path privateKeyTemporary;
+        try {
+            privateKeyTemporary = writeTemporary(privateKeyFile,
+                    new PKCS8EncodedKeySpec(keyPair.getPrivate().getEncoded()).getEncoded());
+        } catch (IOException e) {
+            Files.deleteIfExists(publicKeyTemporary);
+            throw e;
+        }
+        Files.move(privateKeyTemporary, privateKeyFile, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(publicKeyTemporary, publicKeyFile, StandardCopyOption.ATOMIC_MOVE);
     }
 
     /**
-     * Retorna a chave privada do access token.
+     * Grava {@code content} em um arquivo temporário ao lado de {@code file}, já sincronizado com o disco.
      *
-     * @return RSAPrivateKey contendo a chave privada do access token.
+     * @return o arquivo temporário, a ser movido para {@code file}.
      */
-    public RSAPrivateKey getAccessTokenPrivateKey() {
-        return (RSAPrivateKey) getAccessTokenKeyPair().getPrivate();
+    private static Path writeTemporary(Path file, byte[] content) throws IOException {
+        Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName() + ".", ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        return temporary;
     }
 
     /**
-     * Retorna a chave pública do refresh token.
+     * Retorna o algoritmo das chaves do access token.
      *
-     * @return RSAPublicKey contendo a chave pública do refresh token.
+     * @return o algoritmo configurado em {@code access-token.algorithm}.
      */
-    public RSAPublicKey getRefreshTokenPublicKey() {
-        return (RSAPublicKey) getRefreshTokenKeyPair().getPublic();
+    public KeyAlgorithm getAccessTokenAlgorithm() {
+        return accessTokenAlgorithm;
     }
 
     /**
-     * Retorna a chave privada do refresh token.
+     * Retorna o algoritmo das chaves do refresh token.
      *
-     * @return RSAPrivateKey contendo a chave privada do refresh token.
+     * @return o algoritmo configurado em {@code refresh-token.algorithm}.
      */
-    public RSAPrivateKey getRefreshTokenPrivateKey() {
-        return (RSAPrivateKey) getRefreshTokenKeyPair().getPrivate();
+    public KeyAlgorithm getRefreshTokenAlgorithm() {
+        return refreshTokenAlgorithm;
     }
 }
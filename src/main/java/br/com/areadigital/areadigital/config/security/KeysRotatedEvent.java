@@ -0,0 +1,9 @@
+package br.com.areadigital.areadigital.config.security;
+
+/**
+ * Publicado pelo {@link KeyUtils} após gerar um novo par de chaves.
+ *
+ * @param accessToken {@code true} para as chaves dos tokens de acesso, {@code false} para as de atualização.
+ */
+public record KeysRotatedEvent(boolean accessToken) {
+}
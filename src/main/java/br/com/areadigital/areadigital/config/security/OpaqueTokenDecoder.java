@@ -0,0 +1,41 @@
+package br.com.areadigital.areadigital.config.security;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Decodificador dos tokens de acesso que aceita tanto os tokens opacos quanto os JWTs.
+ * <p>
+ * Os tokens opacos são resolvidos no {@link OpaqueTokenStore}, com uma busca em memória no lugar da verificação da
+ * assinatura; os JWTs seguem para o decodificador delegado. Assim os dois formatos continuam aceitos enquanto
+ * {@code access-token.format} é alterado.
+ * <p>
+ * Um token opaco só é aceito se foi emitido pelo mesmo emissor ({@code iss}) do decodificador, para que o token de
+ * um tenant não valha em outro.
+ */
+public class OpaqueTokenDecoder implements JwtDecoder {
+
+    private final OpaqueTokenStore store;
+    private final JwtDecoder jwtDecoder;
+    private final String issuer;
+
+    public OpaqueTokenDecoder(OpaqueTokenStore store, JwtDecoder jwtDecoder, String issuer) {
+        this.store = store;
+        this.jwtDecoder = jwtDecoder;
+        this.issuer = issuer;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (!OpaqueTokenStore.isOpaque(token)) {
+            return jwtDecoder.decode(token);
+        }
+        Jwt jwt = store.find(token);
+        if (jwt == null || !issuer.equals(jwt.getClaimAsString("iss"))) {
+            throw new BadJwtException("Opaque token is unknown, revoked or expired");
+        }
+        return jwt;
+    }
+}
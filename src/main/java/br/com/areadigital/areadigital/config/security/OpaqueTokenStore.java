@@ -0,0 +1,241 @@
+package br.com.areadigital.areadigital.config.security;
+
+import br.com.areadigital.areadigital.util.SegmentLog.Record;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Tokens de acesso opacos ({@code access-token.format: OPAQUE}): cada token é uma sequência aleatória de
+ * {@value #TOKEN_BYTES} bytes em base64url, associada às claims que o JWT levaria.
+ * <p>
+ * As claims são gravadas no {@link TokenSegmentStore}; em memória fica apenas o endereço do registro de cada token.
+ * Como na {@link AccessTokenRevocationList}, os tokens são agrupados em gerações pelo {@code exp}, cada uma cobrindo
+ * uma janela do tamanho do tempo de vida do token de acesso: uma busca consulta no máximo duas ou três gerações, e
+ * uma geração inteira é descartada de uma vez quando todos os seus tokens expiram. Uma revogação grava um registro
+ * próprio, para que o token não volte a valer depois de um reinício. Os tokens de um tenant guardam também o
+ * {@code iss} do tenant.
+ * <p>
+ * A emissão, a revogação e a realocação de um registro pela compactação são serializadas por {@code this}; a busca
+ * não usa locks.
+ */
+@Component
+@Slf4j
+public class OpaqueTokenStore implements TokenSegmentStore.RecordOwner {
+
+    /**
+     * Tamanho dos tokens: 168 bits aleatórios, 28 caracteres em base64url.
+     */
+    private static final int TOKEN_BYTES = 21;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecureRandom random = new SecureRandom();
+    private final long windowSeconds;
+    private final TokenSegmentStore tokenSegmentStore;
+    private final ConcurrentNavigableMap<Long, Map<String, Long>> generations = new ConcurrentSkipListMap<>();
+
+    public OpaqueTokenStore(@Value("${access-token.time-to-live:5m}") Duration accessTokenTimeToLive,
+                            TokenSegmentStore tokenSegmentStore) {
+        this.windowSeconds = Math.max(1, accessTokenTimeToLive.toSeconds());
+        this.tokenSegmentStore = tokenSegmentStore;
+    }
+
+    @PostConstruct
+    void load() {
+        tokenSegmentStore.register(this, TokenSegmentStore.OPAQUE_TOKEN, TokenSegmentStore.TENANT_OPAQUE_TOKEN,
+                TokenSegmentStore.OPAQUE_TOKEN_REVOKED);
+        log.info("{} tokens opacos carregados", size());
+    }
+
+    /**
+     * Indica se o token está no formato opaco, e não no de um JWT.
+     */
+    public static boolean isOpaque(String token) {
+        return token.indexOf('.') < 0;
+    }
+
+    /**
+     * Emite um token opaco.
+     *
+     * @param userId    o id do usuário ({@code sub}).
+     * @param issuer    o emissor ({@code iss}).
+     * @param roles     os papéis, no formato da claim {@link TokenGenerator#ROLES_CLAIM}, ou {@code null}.
+     * @param issuedAt  o instante de emissão.
+     * @param expiresAt o instante de expiração.
+     * @return o token.
+     */
+    public String issue(Long userId, String issuer, String roles, Instant issuedAt, Instant expiresAt) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = ENCODER.encodeToString(bytes);
+        boolean tenant = !TokenGenerator.ISSUER.equals(issuer);
+        byte[] issuerBytes = tenant ? issuer.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (issuerBytes.length > 0xFF) {
+            throw new IllegalArgumentException("Issuer longer than 255 bytes: " + issuer);
+        }
+        byte[] roleBytes = roles != null ? roles.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        ByteBuffer value = ByteBuffer.allocate(2 * Long.BYTES + (tenant ? 1 + issuerBytes.length : 0) + roleBytes.length)
+                .putLong(userId)
+                .putLong(issuedAt.getEpochSecond());
+        if (tenant) {
+            value.put((byte) issuerBytes.length).put(issuerBytes);
+        }
+        value.put(roleBytes);
+        byte type = tenant ? TokenSegmentStore.TENANT_OPAQUE_TOKEN : TokenSegmentStore.OPAQUE_TOKEN;
+        synchronized (this) {
+            long address = tokenSegmentStore.append(type, expiresAt, token, value.array());
+            generation(expiresAt.getEpochSecond()).put(token, address);
+        }
+        purgeExpired(issuedAt.getEpochSecond());
+        return token;
+    }
+
+    /**
+     * Busca as claims de um token.
+     *
+     * @param token o token opaco.
+     * @return as claims, como um {@link Jwt} sem assinatura, ou {@code null} se o token for desconhecido, revogado ou
+     * estiver expirado.
+     */
+    public Jwt find(String token) {
+        long now = Instant.now().getEpochSecond();
+        purgeExpired(now);
+        Record record = read(get(token));
+        if (record == null) {
+            // A compactação pode ter realocado o registro entre a busca no índice e a leitura
+            record = read(get(token));
+        }
+        if (record == null || record.expiresAt() <= now) {
+            return null;
+        }
+        ByteBuffer value = record.value();
+        long userId = value.getLong();
+        long issuedAt = value.getLong();
+        String issuer = TokenGenerator.ISSUER;
+        if (record.type() == TokenSegmentStore.TENANT_OPAQUE_TOKEN) {
+            int issuerLength = value.get() & 0xFF;
+            issuer = StandardCharsets.UTF_8.decode(value.slice(value.position(), issuerLength)).toString();
+            value.position(value.position() + issuerLength);
+        }
+        Jwt.Builder jwt = Jwt.withTokenValue(token)
+                .header("alg", "none")
+                .issuer(issuer)
+                .subject(String.valueOf(userId))
+                .issuedAt(Instant.ofEpochSecond(issuedAt))
+                .expiresAt(Instant.ofEpochSecond(record.expiresAt()));
+        if (value.hasRemaining()) {
+            jwt.claim(TokenGenerator.ROLES_CLAIM, StandardCharsets.UTF_8.decode(value).toString());
+        }
+        return jwt.build();
+    }
+
+    /**
+     * Revoga o token, que deixa de ser encontrado imediatamente.
+     *
+     * @return {@code true} se o token existia.
+     */
+    public synchronized boolean revoke(String token) {
+        for (Map<String, Long> generation : generations.values()) {
+            Long address = generation.remove(token);
+            if (address != null) {
+                Record record = tokenSegmentStore.read(address);
+                if (record != null) {
+                    tokenSegmentStore.append(TokenSegmentStore.OPAQUE_TOKEN_REVOKED,
+                            Instant.ofEpochSecond(record.expiresAt()), token, new byte[0]);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * O número de tokens em memória, incluindo os expirados de gerações ainda não descartadas.
+     */
+    public int size() {
+        return generations.values().stream().mapToInt(Map::size).sum();
+    }
+
+    @Override
+    public void replay(Record record) {
+        if (isToken(record)) {
+            generation(record.expiresAt()).put(record.key(), record.address());
+        } else {
+            Map<String, Long> generation = generations.get(bucket(record.expiresAt()));
+            if (generation != null) {
+                generation.remove(record.key());
+            }
+        }
+    }
+
+    /**
+     * Um token está vivo enquanto o índice apontar para o registro; uma revogação, até o token expirar.
+     */
+    @Override
+    public boolean isLive(Record record) {
+        if (!isToken(record)) {
+            return true;
+        }
+        Map<String, Long> generation = generations.get(bucket(record.expiresAt()));
+        return generation != null && Long.valueOf(record.address()).equals(generation.get(record.key()));
+    }
+
+    @Override
+    public synchronized void relocate(Record record) {
+        if (!isToken(record)) {
+            tokenSegmentStore.copy(record);
+        } else if (isLive(record)) {
+            generations.get(bucket(record.expiresAt())).put(record.key(), tokenSegmentStore.copy(record));
+        }
+    }
+
+    private static boolean isToken(Record record) {
+        return record.type() != TokenSegmentStore.OPAQUE_TOKEN_REVOKED;
+    }
+
+    private Long get(String token) {
+        for (Map<String, Long> generation : generations.descendingMap().values()) {
+            Long address = generation.get(token);
+            if (address != null) {
+                return address;
+            }
+        }
+        return null;
+    }
+
+    private Record read(Long address) {
+        return address != null ? tokenSegmentStore.read(address) : null;
+    }
+
+    private Map<String, Long> generation(long expiresAt) {
+        return generations.computeIfAbsent(bucket(expiresAt), key -> new ConcurrentHashMap<>());
+    }
+
+    private long bucket(long epochSecond) {
+        return Math.floorDiv(epochSecond, windowSeconds);
+    }
+
+    private void purgeExpired(long now) {
+        long oldestLive = bucket(now);
+        Map.Entry<Long, Map<String, Long>> oldest;
+        while ((oldest = generations.firstEntry()) != null && oldest.getKey() < oldestLive) {
+            if (generations.remove(oldest.getKey(), oldest.getValue())) {
+                log.debug("Geração {} de tokens opacos descartada ({} tokens)", oldest.getKey(), oldest.getValue().size());
+            }
+        }
+    }
+}
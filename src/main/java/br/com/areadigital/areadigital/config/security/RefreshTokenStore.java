@@ -0,0 +1,51 @@
+package br.com.areadigital.areadigital.config.security;
+
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Registro dos refresh tokens emitidos, usado pelo {@link TokenGenerator} para que cada refresh token seja usado uma
+ * única vez.
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * Registra um novo refresh token.
+     *
+     * @param userId    o usuário dono do token.
+     * @param familyId  a família do token que está sendo trocado, ou {@code null} para iniciar uma nova família.
+     * @param expiresAt quando o token expira.
+     * @return o identificador do token, a ser usado como {@code jti}.
+     */
+    String issue(Long userId, String familyId, Instant expiresAt);
+
+    /**
+     * Registra de uma vez um novo refresh token, cada um iniciando uma nova família, para cada usuário.
+     *
+     * @param userIds   os usuários donos dos tokens.
+     * @param expiresAt quando os tokens expiram.
+     * @return os identificadores dos tokens, na ordem dos usuários.
+     */
+    List<String> issueAll(List<Long> userIds, Instant expiresAt);
+
+    /**
+     * Consome um refresh token, que não poderá ser usado novamente.
+     *
+     * @param tokenId o {@code jti} do token apresentado.
+     * @param userId  o usuário indicado no token.
+     * @return a família do token, para que o token seguinte pertença a ela.
+     * @throws InvalidBearerTokenException se o token for desconhecido, revogado ou já tiver sido usado; neste último
+     *                                     caso a família inteira é revogada.
+     */
+    String consume(String tokenId, Long userId) throws InvalidBearerTokenException;
+
+    /**
+     * Revoga o token e todos os demais da mesma família. Tokens desconhecidos são ignorados.
+     *
+     * @param tokenId o {@code jti} do token.
+     * @param userId  o usuário indicado no token.
+     */
+    void revoke(String tokenId, Long userId);
+}
@@ -0,0 +1,106 @@
+package br.com.areadigital.areadigital.config.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Codificador JWT que assina com a chave ativa de um {@link TokenKeySet}, de qualquer {@link KeyAlgorithm}.
+ * <p>
+ * Diferente do {@code NimbusJwtEncoder}, que só trabalha com chaves RSA e EC, este codificador também assina com
+ * Ed25519. O assinador e o cabeçalho (com o {@code kid}) são criados uma única vez por chave, no {@link TokenKeySet};
+ * após uma rotação, a próxima chamada já assina com a nova chave.
+ * <p>
+ * {@link #encode(byte[])} assina um payload já serializado: o cabeçalho codificado em Base64URL também vem pronto da
+ * chave, então cada token custa apenas a codificação do payload, a assinatura e a concatenação das partes.
+ */
+public class SigningKeyJwtEncoder implements CompactJwtEncoder {
+
+    private static final String ENCODING_ERROR_MESSAGE_TEMPLATE = "An error occurred while attempting to encode the Jwt: %s";
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final Supplier<TokenKeySet> keys;
+
+    /**
+     * Cria o codificador para as chaves informadas.
+     *
+     * @param keys fornece o conjunto de chaves atual.
+     */
+    public SigningKeyJwtEncoder(Supplier<TokenKeySet> keys) {
+        this.keys = keys;
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        TokenKeySet.SigningKey signingKey = keys.get().getSigningKey();
+        JwsHeader headers = parameters.getJwsHeader();
+        if (headers != null && !signingKey.algorithm().getJwsAlgorithm().getName().equals(headers.getAlgorithm().getName())) {
+            throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE,
+                    "The signing key does not support the algorithm " + headers.getAlgorithm().getName()));
+        }
+        JwtClaimsSet claims = parameters.getClaims();
+
+        JWSHeader jwsHeader = signingKey.header();
+        SignedJWT signedJwt = new SignedJWT(jwsHeader, convert(claims));
+        try {
+            signedJwt.sign(signingKey.signer());
+        } catch (JOSEException e) {
+            throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE, e.getMessage()), e);
+        }
+
+        return new Jwt(signedJwt.serialize(), claims.getIssuedAt(), claims.getExpiresAt(),
+                jwsHeader.toJSONObject(), claims.getClaims());
+    }
+
+    @Override
+    public CompactJwt encode(byte[] claimsJson) throws JwtEncodingException {
+        TokenKeySet.SigningKey signingKey = keys.get().getSigningKey();
+        byte[] header = signingKey.encodedHeader();
+        byte[] payload = BASE64URL.encode(claimsJson);
+
+        // cabeçalho.payload, em ASCII: é a entrada da assinatura e o início do token
+        byte[] signingInput = Arrays.copyOf(header, header.length + 1 + payload.length);
+        signingInput[header.length] = '.';
+        System.arraycopy(payload, 0, signingInput, header.length + 1, payload.length);
+
+        Base64URL signature;
+        try {
+            signature = signingKey.signer().sign(signingKey.header(), signingInput);
+        } catch (JOSEException e) {
+            throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE, e.getMessage()), e);
+        }
+        String tokenValue = new String(signingInput, StandardCharsets.US_ASCII) + '.' + signature;
+        return new CompactJwt(tokenValue, signingKey.keyId());
+    }
+
+    private static JWTClaimsSet convert(JwtClaimsSet claims) {
+        JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder();
+        for (Map.Entry<String, Object> claim : claims.getClaims().entrySet()) {
+            Object value = claim.getValue();
+            if (value instanceof Instant instant) {
+                value = Date.from(instant);
+            } else if (value instanceof URL url) {
+                value = url.toExternalForm();
+            }
+            builder.claim(claim.getKey(), value);
+        }
+        return builder.build();
+    }
+}
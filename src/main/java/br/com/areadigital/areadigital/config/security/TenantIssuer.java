@@ -0,0 +1,30 @@
+package br.com.areadigital.areadigital.config.security;
+
+import br.com.areadigital.areadigital.model.User;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.util.Objects;
+
+/**
+ * O emissor dos tokens de acesso de um tenant, criado pelo {@link TenantIssuers}.
+ *
+ * @param tenantId              o id do tenant, ou {@code null} para o emissor padrão.
+ * @param issuer                o {@code iss} dos tokens de acesso do tenant.
+ * @param accessTokenEncoder    assina os tokens de acesso com as chaves do tenant.
+ * @param accessTokenDecoder    verifica os tokens de acesso, aceitando apenas os deste emissor.
+ * @param authenticationManager autentica as requisições com um token de acesso do tenant.
+ */
+public record TenantIssuer(String tenantId, String issuer, CompactJwtEncoder accessTokenEncoder,
+                           JwtDecoder accessTokenDecoder, AuthenticationManager authenticationManager) {
+
+    /**
+     * Indica se o usuário pertence a este tenant. Os usuários sem tenant pertencem ao emissor padrão.
+     *
+     * @param user o usuário.
+     * @return {@code true} se tokens deste emissor podem ser emitidos para o usuário.
+     */
+    public boolean includes(User user) {
+        return Objects.equals(tenantId, user.getTenantId());
+    }
+}
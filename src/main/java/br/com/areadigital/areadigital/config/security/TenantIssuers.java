@@ -0,0 +1,164 @@
+package br.com.areadigital.areadigital.config.security;
+
+import br.com.areadigital.areadigital.config.jfr.RecordingJwtDecoder;
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import br.com.areadigital.areadigital.config.metrics.MeteredJwtDecoder;
+import br.com.areadigital.areadigital.config.metrics.MeteredJwtEncoder;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.text.MessageFormat;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Emissores dos tokens de acesso por tenant (marca), com {@code iss} e chaves próprios.
+ * <p>
+ * O tenant é indicado pelo cabeçalho {@code tenants.header}; sem o cabeçalho, vale o emissor padrão ({@code myApp},
+ * com as chaves de {@code access-token.*}). Apenas os tenants provisionados em {@code tenants.allowed} são aceitos;
+ * as chaves deles são geradas na inicialização, se ainda não existirem, e nunca durante uma requisição. O emissor de
+ * um tenant é criado no primeiro uso, com as chaves de {@code tenants.keys-directory/<tenant>/} e o {@code iss} de
+ * {@code tenants.issuer}, e mantido em um cache limitado a
+ * {@code tenants.cache.maximum-size} tenants: os tenants pouco usados são descartados e recriados a partir dos
+ * arquivos quando voltam a aparecer. Obter o emissor de um tenant em uso é uma única busca no cache.
+ * <p>
+ * Os tokens de atualização continuam com as chaves e o {@code iss} padrões; o tenant da requisição de renovação
+ * define o emissor do novo token de acesso.
+ */
+@Component
+@Slf4j
+public class TenantIssuers {
+
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9][a-z0-9-]{0,62}");
+
+    private final KeyUtils keyUtils;
+    private final AccessTokenRevocationList accessTokenRevocationList;
+    private final OpaqueTokenStore opaqueTokenStore;
+    private final JwtToUserConverter jwtToUserConverter;
+    private final AuthMetrics authMetrics;
+    private final String header;
+    private final String issuerPattern;
+    private final Set<String> allowed;
+    private final TenantIssuer defaultIssuer;
+    private final LoadingCache<String, TenantIssuer> issuers;
+
+    public TenantIssuers(KeyUtils keyUtils,
+                         AccessTokenRevocationList accessTokenRevocationList,
+                         OpaqueTokenStore opaqueTokenStore,
+                         JwtToUserConverter jwtToUserConverter,
+                         AuthMetrics authMetrics,
+                         CompactJwtEncoder accessTokenEncoder,
+                         JwtDecoder accessTokenDecoder,
+                         @Value("${tenants.header:X-Tenant-Id}") String header,
+                         @Value("${tenants.issuer:myApp/{0}}") String issuerPattern,
+                         @Value("${tenants.allowed:}") Set<String> allowed,
+                         @Value("${tenants.cache.maximum-size:1000}") long maximumSize) {
+        this.keyUtils = keyUtils;
+        this.accessTokenRevocationList = accessTokenRevocationList;
+        this.opaqueTokenStore = opaqueTokenStore;
+        this.jwtToUserConverter = jwtToUserConverter;
+        this.authMetrics = authMetrics;
+        this.header = header;
+        this.issuerPattern = issuerPattern;
+        this.allowed = Set.copyOf(allowed);
+        for (String tenantId : this.allowed) {
+            if (!TENANT_ID.matcher(tenantId).matches()) {
+                throw new IllegalStateException("Id de tenant inválido em tenants.allowed: " + tenantId);
+            }
+            keyUtils.provisionTenantAccessTokenKeys(tenantId);
+        }
+        log.info("Tenants provisionados: {}", this.allowed);
+        this.defaultIssuer = new TenantIssuer(null, TokenGenerator.ISSUER, accessTokenEncoder, accessTokenDecoder,
+                authenticationManager(accessTokenDecoder));
+        this.issuers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build(this::load);
+        authMetrics.monitor("tenant-issuers", issuers, LoadingCache::stats);
+    }
+
+    /**
+     * Obtém o emissor do tenant indicado no cabeçalho da requisição.
+     *
+     * @throws ResponseStatusException {@code 400} se o tenant for inválido ou desconhecido.
+     */
+    public TenantIssuer resolve(HttpServletRequest request) {
+        return get(request.getHeader(header));
+    }
+
+    /**
+     * Obtém o emissor do tenant, criando-o se ainda não estiver no cache.
+     *
+     * @param tenantId o id do tenant, ou {@code null} para o emissor padrão.
+     * @throws ResponseStatusException {@code 400} se o tenant for inválido, não estiver provisionado ou suas chaves
+     *                                 não puderem ser carregadas.
+     */
+    public TenantIssuer get(String tenantId) {
+        if (tenantId == null || tenantId.isEmpty()) {
+            return defaultIssuer;
+        }
+        if (!TENANT_ID.matcher(tenantId).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid tenant");
+        }
+        if (!allowed.contains(tenantId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown tenant");
+        }
+        try {
+            return issuers.get(tenantId);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao carregar o emissor do tenant {}", tenantId, e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown tenant", e);
+        }
+    }
+
+    /**
+     * Escolhe, para a cadeia de recursos, o {@link AuthenticationManager} do tenant da requisição. Um tenant inválido
+     * ou desconhecido recebe {@code 401}, como um token inválido.
+     */
+    public AuthenticationManager authenticationManager(HttpServletRequest request) {
+        try {
+            return resolve(request).authenticationManager();
+        } catch (ResponseStatusException e) {
+            return authentication -> {
+                throw new InvalidBearerTokenException(e.getReason());
+            };
+        }
+    }
+
+    private TenantIssuer load(String tenantId) {
+        TokenKeySet keys = keyUtils.getTenantAccessTokenKeys(tenantId);
+        String issuer = MessageFormat.format(issuerPattern, tenantId);
+
+        NimbusJwtDecoder decoder = WebSecurity.jwtDecoder(() -> keys);
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefaultWithIssuer(issuer),
+                accessTokenRevocationList));
+        JwtDecoder accessTokenDecoder = new MeteredJwtDecoder(new RecordingJwtDecoder(
+                new OpaqueTokenDecoder(opaqueTokenStore, decoder, issuer), AuthMetrics.ACCESS_TOKEN),
+                authMetrics, AuthMetrics.ACCESS_TOKEN);
+        CompactJwtEncoder accessTokenEncoder = new MeteredJwtEncoder(new SigningKeyJwtEncoder(() -> keys),
+                authMetrics.jwtEncodeTimer(AuthMetrics.ACCESS_TOKEN));
+
+        log.info("Emissor do tenant {} criado: {}", tenantId, issuer);
+        return new TenantIssuer(tenantId, issuer, accessTokenEncoder, accessTokenDecoder,
+                authenticationManager(accessTokenDecoder));
+    }
+
+    private AuthenticationManager authenticationManager(JwtDecoder decoder) {
+        JwtAuthenticationProvider provider = new JwtAuthenticationProvider(decoder);
+        provider.setJwtAuthenticationConverter(jwtToUserConverter);
+        return provider::authenticate;
+    }
+}
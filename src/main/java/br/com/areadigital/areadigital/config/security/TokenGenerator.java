@@ -1,27 +1,47 @@
 package br.com.areadigital.areadigital.config.security;
 
+import br.com.areadigital.areadigital.config.TokenSigningExecutor;
+import br.com.areadigital.areadigital.config.jfr.TokenIssuanceEvent;
+import br.com.areadigital.areadigital.config.security.CompactJwtEncoder.CompactJwt;
 import br.com.areadigital.areadigital.model.User;
 import br.com.areadigital.areadigital.dto.TokenDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtClaimsSet;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 
 /**
 
  The TokenGenerator class is responsible for creating and returning access and refresh tokens based on a user's authentication credentials.
+ <p>
+ Both tokens are built from a single snapshot of the principal (subject, authorities and issue time) and their
+ payloads are written directly as JSON, then signed by a {@link CompactJwtEncoder} that reuses the key's signer and
+ encoded header. Issuing a pair therefore avoids the intermediate claim maps, JSON trees and {@link Jwt} objects of
+ the generic {@code JwtEncoder} path.
+ <p>
+ Access tokens can be issued for a {@link TenantIssuer}, with the tenant's issuer and keys; refresh tokens always use
+ the default issuer and keys.
+ <p>
+ Only access tokens carry the {@link #ROLES_CLAIM} claim. Refresh tokens live much longer, so the authorities of a
+ refreshed pair are reloaded from the user instead of being copied forward from the refresh token.
  */
 @Component
 @Slf4j
@@ -29,79 +49,304 @@ import java.time.temporal.ChronoUnit;
 public class TokenGenerator {
 
     /**
-     * The JwtEncoder used to encode access tokens.
+     * Claim holding the user's authorities, space separated (e.g. {@code "ROLE_ADMIN ROLE_USER"}).
      */
-    private final JwtEncoder accessTokenEncoder;
+    public static final String ROLES_CLAIM = "roles";
+
+    /**
+     * The {@code iss} claim of every token.
+     */
+    static final String ISSUER = "myApp";
+
+    /**
+     * Start of every payload, up to the opening quote of the subject: the issuer is serialized only once.
+     */
+    private static final String PAYLOAD_PREFIX = "{\"iss\":\"" + ISSUER + "\",\"sub\":\"";
+
+    /**
+     * The encoder used to sign access tokens.
+     */
+    private final CompactJwtEncoder accessTokenEncoder;
     /**
-     * The JwtEncoder used to encode refresh tokens.
+     * The encoder used to sign refresh tokens.
      */
-    @SuppressWarnings("SpringQualifierCopyableLombok")
     @Qualifier("jwtRefreshTokenEncoder")
-    private final JwtEncoder refreshTokenEncoder;
+    private final CompactJwtEncoder refreshTokenEncoder;
+    /**
+     * The registry that makes each refresh token single use.
+     */
+    private final RefreshTokenStore refreshTokenStore;
+    /**
+     * Holds the claims of opaque access tokens.
+     */
+    private final OpaqueTokenStore opaqueTokenStore;
+    /**
+     * Signs the tokens of a batch in parallel.
+     */
+    private final TokenSigningExecutor tokenSigningExecutor;
 
     /**
-     * Creates an access token based on the provided authentication.
-     *
-     * @param authentication The authentication object containing the user's credentials.
-     * @return A string representing the access token.
+     * Whether access tokens are issued as signed JWTs or as opaque references to an {@link OpaqueTokenStore} entry.
+     */
+    @Value("${access-token.format:JWT}")
+    private AccessTokenFormat accessTokenFormat;
+
+    /**
+     * How long access tokens remain valid.
+     */
+    @Value("${access-token.time-to-live:5m}")
+    private Duration accessTokenTimeToLive;
+
+    /**
+     * How long refresh tokens remain valid.
      */
-    private String createAccessToken(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        Instant now = Instant.now();
+    @Value("${refresh-token.time-to-live:30d}")
+    private Duration refreshTokenTimeToLive;
 
-        JwtClaimsSet claimsSet = JwtClaimsSet.builder().issuer("myApp").issuedAt(now).expiresAt(now.plus(5, ChronoUnit.MINUTES)).subject(String.valueOf(user.getId())).build();
+    /**
+     * How many refresh tokens of a batch are registered with each insert batch.
+     */
+    @Value("${token-batch.chunk-size:500}")
+    private int batchChunkSize;
 
-        String tokenValue = accessTokenEncoder.encode(JwtEncoderParameters.from(claimsSet)).getTokenValue();
-        return tokenValue;
+    /**
+     * Creates an access token, in the configured {@link AccessTokenFormat}.
+     *
+     * @param tenant  The tenant's issuer, or {@code null} for the default issuer.
+     * @param userId  The user's id.
+     * @param subject The user's id, as written in the {@code sub} claim.
+     * @param roles   The user's authorities, as written in the {@link #ROLES_CLAIM} claim, or {@code null}.
+     * @param now     The issue time shared by both tokens.
+     * @return The signed access token, or an opaque token without a key id.
+     */
+    private CompactJwt createAccessToken(TenantIssuer tenant, Long userId, String subject, String roles, Instant now) {
+        Instant expiresAt = now.plus(accessTokenTimeToLive);
+        String issuer = tenant != null ? tenant.issuer() : ISSUER;
+        if (accessTokenFormat == AccessTokenFormat.OPAQUE) {
+            return new CompactJwt(opaqueTokenStore.issue(userId, issuer, roles, now, expiresAt), null);
+        }
+        CompactJwtEncoder encoder = tenant != null ? tenant.accessTokenEncoder() : accessTokenEncoder;
+        return encoder.encode(payload(issuer, subject, roles, now, expiresAt, UUID.randomUUID().toString()));
     }
 
     /**
-     * Creates a refresh token based on the provided authentication.
+     * Signs a refresh token already registered in the {@link RefreshTokenStore}, without the {@link #ROLES_CLAIM} claim.
      *
-     * @param authentication The authentication object containing the user's credentials.
-     * @return A string representing the refresh token.
+     * @param subject The user's id, as written in the {@code sub} claim.
+     * @param now     The issue time shared by both tokens.
+     * @param tokenId The id returned by the {@link RefreshTokenStore}, written in the {@code jti} claim.
+     * @return The signed refresh token.
      */
-    private String createRefreshToken(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        Instant now = Instant.now();
+    private CompactJwt createRefreshToken(String subject, Instant now, String tokenId) {
+        return refreshTokenEncoder.encode(payload(ISSUER, subject, null, now, now.plus(refreshTokenTimeToLive), tokenId));
+    }
+
+    /**
+     * Signs both tokens of a pair, recording their key ids in the event when it is enabled.
+     *
+     * @param event          The issuance event of the pair.
+     * @param tenant         The tenant's issuer, or {@code null} for the default issuer.
+     * @param userId         The user's id.
+     * @param roles          The user's authorities, as written in the access token's {@link #ROLES_CLAIM} claim, or
+     *                       {@code null}.
+     * @param now            The issue time shared by both tokens.
+     * @param refreshTokenId The id of the registered refresh token.
+     * @return A TokenDTO object containing the user's ID, access token, and refresh token.
+     */
+    private TokenDTO signTokens(TokenIssuanceEvent event, TenantIssuer tenant, Long userId, String roles, Instant now,
+                                String refreshTokenId) {
+        String subject = String.valueOf(userId);
+        CompactJwt accessToken = createAccessToken(tenant, userId, subject, roles, now);
+        CompactJwt refreshToken = createRefreshToken(subject, now, refreshTokenId);
+
+        TokenDTO tokenDTO = new TokenDTO();
+        tokenDTO.setUserId(subject);
+        tokenDTO.setAccessToken(accessToken.tokenValue());
+        tokenDTO.setRefreshToken(refreshToken.tokenValue());
+
+        if (event.shouldCommit()) {
+            event.accessTokenKeyId = accessToken.keyId();
+            event.refreshTokenKeyId = refreshToken.keyId();
+        }
+        return tokenDTO;
+    }
+
+    /**
+     * Writes the claims of a token as JSON: {@code iss}, {@code sub}, {@code iat}, {@code exp}, {@code jti} and, when
+     * there are authorities, {@link #ROLES_CLAIM}.
+     */
+    private static byte[] payload(String issuer, String subject, String roles, Instant issuedAt, Instant expiresAt,
+                                  String tokenId) {
+        StringBuilder json = new StringBuilder(160 + (roles != null ? roles.length() : 0));
+        if (ISSUER.equals(issuer)) {
+            json.append(PAYLOAD_PREFIX);
+        } else {
+            json.append("{\"iss\":");
+            appendString(json, issuer);
+            json.append(",\"sub\":\"");
+        }
+        json.append(subject)
+                .append("\",\"iat\":").append(issuedAt.getEpochSecond())
+                .append(",\"exp\":").append(expiresAt.getEpochSecond())
+                .append(",\"jti\":");
+        appendString(json, tokenId);
+        if (roles != null) {
+            json.append(",\"" + ROLES_CLAIM + "\":");
+            appendString(json, roles);
+        }
+        return json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
 
-        JwtClaimsSet claimsSet = JwtClaimsSet.builder().issuer("myApp").issuedAt(now).expiresAt(now.plus(30, ChronoUnit.DAYS)).subject(String.valueOf(user.getId())).build();
+    /**
+     * Appends the value as a JSON string, escaping quotes, backslashes and control characters.
+     */
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
 
-        return refreshTokenEncoder.encode(JwtEncoderParameters.from(claimsSet)).getTokenValue();
+    /**
+     * Returns the authentication's authorities as written in the {@link #ROLES_CLAIM} claim, so resource servers can
+     * authorize requests without loading the user, or {@code null} when there are no authorities.
+     *
+     * @param authentication The authentication object containing the user's authorities.
+     */
+    private static String roles(Authentication authentication) {
+        Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+        if (authorities.isEmpty()) {
+            return null;
+        }
+        if (authorities.size() == 1) {
+            return authorities.iterator().next().getAuthority();
+        }
+        return authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.joining(" "));
     }
 
     /**
      * Creates and returns an access token and refresh token based on the provided authentication.
+     * <p>
+     * When the authentication comes from a refresh token (its credentials are a {@link Jwt}), that refresh token is
+     * consumed and the new one joins the same family; refresh tokens are never handed out twice. Its authorities must
+     * then be the user's current ones, as refresh tokens carry none.
+     * <p>
+     * Each call is recorded as a {@link TokenIssuanceEvent} when that JFR event is enabled.
      *
      * @param authentication The authentication object containing the user's credentials.
      * @return A TokenDTO object containing the user's ID, access token, and refresh token.
      * @throws BadCredentialsException if the authentication principal is not of type User.
+     * @throws InvalidBearerTokenException if the refresh token was already used, revoked or is unknown.
      */
     public TokenDTO createToken(Authentication authentication) throws BadCredentialsException {
-        if (!(authentication.getPrincipal() instanceof User user)) {
-            throw new BadCredentialsException(MessageFormat.format("principal {0} is not of User type", authentication.getPrincipal().getClass()));
-        }
+        return createToken(authentication, null);
+    }
 
-        TokenDTO tokenDTO = new TokenDTO();
-        tokenDTO.setUserId(String.valueOf(user.getId()));
-        tokenDTO.setAccessToken(createAccessToken(authentication));
+    /**
+     * Creates and returns an access token and refresh token, as {@link #createToken(Authentication)} does, with the
+     * access token issued by the tenant's issuer.
+     *
+     * @param authentication The authentication object containing the user's credentials.
+     * @param tenant         The tenant's issuer, or {@code null} for the default issuer.
+     * @return A TokenDTO object containing the user's ID, access token, and refresh token.
+     */
+    public TokenDTO createToken(Authentication authentication, TenantIssuer tenant) throws BadCredentialsException {
+        User user = user(authentication);
+
+        TokenIssuanceEvent event = new TokenIssuanceEvent();
+        event.begin();
+        boolean refresh = authentication.getCredentials() instanceof Jwt;
+        try {
+            String familyId = null;
+            if (authentication.getCredentials() instanceof Jwt jwt) {
+                familyId = refreshTokenStore.consume(jwt.getId(), user.getId());
+            }
 
-        String refreshToken;
-        if (authentication.getCredentials() instanceof Jwt jwt) {
             Instant now = Instant.now();
-            Instant expiresAt = jwt.getExpiresAt();
-            Duration duration = Duration.between(now, expiresAt);
-            long daysUntilExpired = duration.toDays();
-            if (daysUntilExpired < 7) {
-                refreshToken = createRefreshToken(authentication);
-            } else {
-                refreshToken = jwt.getTokenValue();
+            String refreshTokenId = refreshTokenStore.issue(user.getId(), familyId, now.plus(refreshTokenTimeToLive));
+            TokenDTO tokenDTO = signTokens(event, tenant, user.getId(), roles(authentication), now, refreshTokenId);
+            if (event.shouldCommit()) {
+                commit(event, user, refresh, "success");
             }
-        } else {
-            refreshToken = createRefreshToken(authentication);
+            return tokenDTO;
+        } catch (RuntimeException e) {
+            if (event.shouldCommit()) {
+                commit(event, user, refresh, e.getClass().getSimpleName());
+            }
+            throw e;
         }
-        tokenDTO.setRefreshToken(refreshToken);
+    }
 
-        return tokenDTO;
+    /**
+     * Creates tokens for many principals at once, as {@link #createToken(Authentication)} does for each of them.
+     * <p>
+     * The principals are handled in chunks of {@code token-batch.chunk-size}: the refresh tokens of a chunk are
+     * registered with a single {@link RefreshTokenStore#issueAll} call, then the chunk is signed in parallel on the
+     * {@link TokenSigningExecutor}. Each pair is handed to {@code consumer} as soon as it is ready, in completion order.
+     * The consumer is therefore called concurrently from several threads and must be thread safe. An exception thrown
+     * for one principal stops the remaining ones.
+     *
+     * @param authentications The authentications, one per principal.
+     * @param tenant          The tenant's issuer, or {@code null} for the default issuer.
+     * @param consumer        Receives each authentication with its tokens.
+     */
+    public void createTokens(Collection<? extends Authentication> authentications, TenantIssuer tenant,
+                             BiConsumer<? super Authentication, TokenDTO> consumer) {
+        List<? extends Authentication> all = List.copyOf(authentications);
+        for (int from = 0; from < all.size(); from += batchChunkSize) {
+            List<? extends Authentication> chunk = all.subList(from, Math.min(from + batchChunkSize, all.size()));
+            List<User> users = chunk.stream().map(TokenGenerator::user).toList();
+            Instant now = Instant.now();
+            List<String> refreshTokenIds = refreshTokenStore.issueAll(users.stream().map(User::getId).toList(),
+                    now.plus(refreshTokenTimeToLive));
+
+            tokenSigningExecutor.forEach(indexes(chunk.size()), i -> {
+                User user = users.get(i);
+                TokenIssuanceEvent event = new TokenIssuanceEvent();
+                event.begin();
+                TokenDTO tokenDTO;
+                try {
+                    tokenDTO = signTokens(event, tenant, user.getId(), roles(chunk.get(i)), now, refreshTokenIds.get(i));
+                } catch (RuntimeException e) {
+                    if (event.shouldCommit()) {
+                        commit(event, user, false, e.getClass().getSimpleName());
+                    }
+                    throw e;
+                }
+                if (event.shouldCommit()) {
+                    commit(event, user, false, "success");
+                }
+                consumer.accept(chunk.get(i), tokenDTO);
+            });
+        }
+    }
+
+    private static User user(Authentication authentication) {
+        if (!(authentication.getPrincipal() instanceof User user)) {
+            throw new BadCredentialsException(MessageFormat.format("principal {0} is not of User type", authentication.getPrincipal().getClass()));
+        }
+        return user;
+    }
+
+    private static List<Integer> indexes(int size) {
+        return IntStream.range(0, size).boxed().toList();
+    }
+
+    private static void commit(TokenIssuanceEvent event, User user, boolean refresh, String outcome) {
+        event.grantType = refresh ? "refresh_token" : "password";
+        event.userId = user.getId();
+        event.outcome = outcome;
+        event.commit();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,203 @@
+package br.com.areadigital.areadigital.config.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conjunto imutável das chaves de um tipo de token: a chave ativa, que assina os novos tokens, e as chaves aceitas
+ * na verificação, indexadas pelo {@code kid}.
+ * <p>
+ * Uma rotação cria um novo conjunto; as chaves anteriores continuam aceitas até {@link VerificationKey#retiredUntil()},
+ * quando o último token assinado por elas já expirou. Como o conjunto nunca é alterado depois de criado, ele pode ser
+ * lido por qualquer thread sem sincronização, e o JWKS publicado e seu ETag são calculados uma única vez.
+ */
+public final class TokenKeySet {
+
+    private final SigningKey signingKey;
+    private final Map<String, VerificationKey> verificationKeys;
+    private final String jwkSetJson;
+    private final String jwkSetETag;
+
+    private TokenKeySet(SigningKey signingKey, Map<String, VerificationKey> verificationKeys) {
+        this.signingKey = signingKey;
+        this.verificationKeys = Collections.unmodifiableMap(verificationKeys);
+
+        List<JWK> jwks = new ArrayList<>(verificationKeys.size());
+        verificationKeys.values().forEach(key -> jwks.add(key.jwk()));
+        this.jwkSetJson = new JWKSet(jwks).toString(true);
+        this.jwkSetETag = eTag(jwkSetJson);
+    }
+
+    /**
+     * Cria o conjunto com uma única chave, ativa.
+     *
+     * @param algorithm o algoritmo do par de chaves.
+     * @param keyPair   o par de chaves ativo.
+     * @return o conjunto de chaves.
+     */
+    public static TokenKeySet of(KeyAlgorithm algorithm, KeyPair keyPair) {
+        SigningKey signingKey = SigningKey.of(algorithm, keyPair);
+        Map<String, VerificationKey> verificationKeys = new LinkedHashMap<>();
+        verificationKeys.put(signingKey.keyId(), signingKey.verificationKey());
+        return new TokenKeySet(signingKey, verificationKeys);
+    }
+
+    /**
+     * Retorna um novo conjunto em que o par informado passa a ser a chave ativa. A chave ativa atual continua aceita
+     * na verificação até {@code retiredUntil}, e as chaves aposentadas já vencidas em {@code now} são descartadas.
+     *
+     * @param algorithm    o algoritmo do novo par de chaves.
+     * @param keyPair      o novo par de chaves ativo.
+     * @param retiredUntil o instante até o qual a chave ativa atual continua aceita.
+     * @param now          o instante da rotação.
+     * @return o novo conjunto de chaves.
+     */
+    public TokenKeySet rotate(KeyAlgorithm algorithm, KeyPair keyPair, Instant retiredUntil, Instant now) {
+        SigningKey next = SigningKey.of(algorithm, keyPair);
+        Map<String, VerificationKey> keys = new LinkedHashMap<>();
+        keys.put(next.keyId(), next.verificationKey());
+        keys.put(signingKey.keyId(), signingKey.verificationKey().retire(retiredUntil));
+        verificationKeys.values().stream()
+                .filter(key -> key.retiredUntil() != null && key.retiredUntil().isAfter(now))
+                .forEach(key -> keys.putIfAbsent(key.keyId(), key));
+        return new TokenKeySet(next, keys);
+    }
+
+    /**
+     * Retorna um novo conjunto que também aceita a chave aposentada informada.
+     *
+     * @param key a chave aposentada.
+     * @return o novo conjunto de chaves.
+     */
+    public TokenKeySet withRetired(VerificationKey key) {
+        if (verificationKeys.containsKey(key.keyId())) {
+            return this;
+        }
+        Map<String, VerificationKey> keys = new LinkedHashMap<>(verificationKeys);
+        keys.put(key.keyId(), key);
+        return new TokenKeySet(signingKey, keys);
+    }
+
+    /**
+     * Retorna a chave que assina os novos tokens.
+     *
+     * @return a chave ativa.
+     */
+    public SigningKey getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * Busca a chave de verificação pelo {@code kid} do cabeçalho do token.
+     *
+     * @param keyId o {@code kid} do token.
+     * @return a chave de verificação, ou {@code null} se nenhuma chave aceita tiver esse {@code kid}.
+     */
+    public VerificationKey getVerificationKey(String keyId) {
+        return verificationKeys.get(keyId);
+    }
+
+    /**
+     * Retorna todas as chaves aceitas na verificação, a ativa primeiro.
+     *
+     * @return as chaves de verificação.
+     */
+    public Collection<VerificationKey> getVerificationKeys() {
+        return verificationKeys.values();
+    }
+
+    /**
+     * Retorna o JWKS com as chaves públicas aceitas na verificação.
+     *
+     * @return o JSON do JWKS.
+     */
+    public String getJwkSetJson() {
+        return jwkSetJson;
+    }
+
+    /**
+     * Retorna o ETag forte do JWKS, que só muda quando o conjunto de chaves muda.
+     *
+     * @return o ETag, já entre aspas.
+     */
+    public String getJwkSetETag() {
+        return jwkSetETag;
+    }
+
+    private static String eTag(String json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64URL.encode(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Chave ativa: o assinador e o cabeçalho JWS (com {@code kid}), inclusive já codificado em Base64URL, são criados
+     * uma única vez por chave.
+     *
+     * @param encodedHeader o cabeçalho na serialização compacta, em ASCII. Não deve ser alterado.
+     */
+    public record SigningKey(String keyId, KeyAlgorithm algorithm, PrivateKey privateKey, JWSSigner signer,
+                             JWSHeader header, byte[] encodedHeader, VerificationKey verificationKey) {
+
+        static SigningKey of(KeyAlgorithm algorithm, KeyPair keyPair) {
+            JWK jwk = algorithm.toPublicJwk(keyPair.getPublic());
+            JWSHeader header = new JWSHeader.Builder(algorithm.getJwsAlgorithm()).keyID(jwk.getKeyID()).build();
+            try {
+                return new SigningKey(jwk.getKeyID(), algorithm, keyPair.getPrivate(),
+                        algorithm.createSigner(keyPair.getPrivate()), header,
+                        header.toBase64URL().toString().getBytes(StandardCharsets.US_ASCII),
+                        new VerificationKey(jwk.getKeyID(), algorithm, keyPair.getPublic(), jwk, null));
+            } catch (JOSEException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+    }
+
+    /**
+     * Chave aceita na verificação dos tokens.
+     *
+     * @param retiredUntil {@code null} para a chave ativa; para as chaves aposentadas, o instante a partir do qual
+     *                     nenhum token assinado por ela ainda é válido.
+     */
+    public record VerificationKey(String keyId, KeyAlgorithm algorithm, PublicKey publicKey, JWK jwk,
+                                  Instant retiredUntil) {
+
+        /**
+         * Cria a chave de verificação de uma chave pública aposentada.
+         *
+         * @param algorithm    o algoritmo da chave.
+         * @param publicKey    a chave pública.
+         * @param retiredUntil o instante até o qual a chave continua aceita.
+         * @return a chave de verificação.
+         */
+        public static VerificationKey retired(KeyAlgorithm algorithm, PublicKey publicKey, Instant retiredUntil) {
+            JWK jwk = algorithm.toPublicJwk(publicKey);
+            return new VerificationKey(jwk.getKeyID(), algorithm, publicKey, jwk, retiredUntil);
+        }
+
+        VerificationKey retire(Instant until) {
+            return new VerificationKey(keyId, algorithm, publicKey, jwk, until);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package br.com.areadigital.areadigital.config.security;
+
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import br.com.areadigital.areadigital.util.SegmentLog;
+import br.com.areadigital.areadigital.util.SegmentLog.Record;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistência do estado dos tokens mantido em memória (tokens opacos e tokens de acesso revogados) em um
+ * {@link SegmentLog} no diretório {@code token-store.directory}, para que ele sobreviva a um reinício sem passar pelo
+ * banco a cada requisição.
+ * <p>
+ * Cada componente registra os tipos de registro que grava com {@link #register(RecordOwner, byte...)}, que reaplica
+ * os registros existentes para que ele reconstrua o seu índice, e mantém os endereços dos registros nesse índice. A
+ * cada {@code token-store.compaction.interval-ms} os segmentos expirados são apagados e os pouco ocupados são
+ * compactados, consultando o componente dono de cada registro.
+ * <p>
+ * Com {@code token-store.directory} vazio os registros ficam apenas em memória. Cada nó precisa do seu próprio
+ * diretório.
+ */
+@Component
+@Slf4j
+public class TokenSegmentStore {
+
+    /**
+     * Token opaco: a chave é o token, o valor o id do usuário, o instante de emissão e os papéis.
+     */
+    public static final byte OPAQUE_TOKEN = 1;
+    /**
+     * Revogação de um token opaco: a chave é o token.
+     */
+    public static final byte OPAQUE_TOKEN_REVOKED = 2;
+    /**
+     * Revogação de um token de acesso JWT: a chave é o {@code jti}.
+     */
+    public static final byte ACCESS_TOKEN_REVOKED = 3;
+    /**
+     * Token opaco de um tenant: como {@link #OPAQUE_TOKEN}, com o {@code iss} do tenant entre o instante de emissão e
+     * os papéis.
+     */
+    public static final byte TENANT_OPAQUE_TOKEN = 4;
+
+    /**
+     * Tolerância de relógio do {@code JwtTimestampValidator}: os registros são mantidos até este tempo após a expiração.
+     */
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(60);
+
+    private final SegmentLog segments;
+    private final double minLiveRatio;
+    private final Map<Byte, RecordOwner> owners = new ConcurrentHashMap<>();
+
+    public TokenSegmentStore(@Value("${token-store.directory:}") String directory,
+                             @Value("${token-store.segment-size:16MB}") DataSize segmentSize,
+                             @Value("${token-store.compaction.min-live-ratio:0.5}") double minLiveRatio,
+                             AuthMetrics authMetrics) {
+        this.segments = new SegmentLog(directory.isBlank() ? null : Path.of(directory), Math.toIntExact(segmentSize.toBytes()));
+        this.minLiveRatio = minLiveRatio;
+        authMetrics.tokenStore(segments);
+    }
+
+    /**
+     * Registra o componente dono dos registros dos tipos informados e reaplica nele, na ordem em que foram gravados,
+     * os registros desses tipos ainda não expirados.
+     */
+    public void register(RecordOwner owner, byte... types) {
+        for (byte type : types) {
+            owners.put(type, owner);
+        }
+        long now = Instant.now().minus(CLOCK_SKEW).getEpochSecond();
+        int[] replayed = {0};
+        segments.replay(record -> {
+            if (owners.get(record.type()) == owner && record.expiresAt() >= now) {
+                owner.replay(record);
+                replayed[0]++;
+            }
+        });
+        if (replayed[0] > 0) {
+            log.info("{} registros reaplicados em {}", replayed[0], owner.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Grava um registro.
+     *
+     * @return o endereço do registro.
+     * @see SegmentLog#append(byte, long, String, byte[])
+     */
+    public long append(byte type, Instant expiresAt, String key, byte[] value) {
+        return segments.append(type, expiresAt.getEpochSecond(), key, value);
+    }
+
+    /**
+     * Copia um registro para o fim do log, na compactação.
+     *
+     * @return o novo endereço do registro.
+     */
+    public long copy(Record record) {
+        return segments.copy(record);
+    }
+
+    /**
+     * Lê um registro.
+     *
+     * @return o registro, ou {@code null} se ele foi realocado pela compactação.
+     */
+    public Record read(long address) {
+        return segments.read(address);
+    }
+
+    @Scheduled(fixedDelayString = "${token-store.flush-interval-ms:1000}")
+    public void flush() {
+        segments.flush();
+    }
+
+    /**
+     * Apaga os segmentos expirados e compacta os que têm menos que {@code token-store.compaction.min-live-ratio} de
+     * registros vivos.
+     */
+    @Scheduled(fixedDelayString = "${token-store.compaction.interval-ms:60000}")
+    public void compact() {
+        int dropped = segments.compact(Instant.now().minus(CLOCK_SKEW).getEpochSecond(), minLiveRatio, new SegmentLog.Compaction() {
+            @Override
+            public boolean isLive(Record record) {
+                RecordOwner owner = owners.get(record.type());
+                return owner != null && owner.isLive(record);
+            }
+
+            @Override
+            public void relocate(Record record) {
+                owners.get(record.type()).relocate(record);
+            }
+        });
+        if (dropped > 0) {
+            log.debug("{} segmento(s) de tokens apagados", dropped);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        segments.close();
+    }
+
+    /**
+     * Componente que grava registros no {@link TokenSegmentStore} e mantém o índice dos seus endereços.
+     */
+    public interface RecordOwner extends SegmentLog.Compaction {
+
+        /**
+         * Aplica no índice um registro gravado antes do reinício.
+         */
+        void replay(Record record);
+    }
+}
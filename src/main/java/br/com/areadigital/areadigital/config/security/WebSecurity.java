@@ -1,6 +1,7 @@
 package br.com.areadigital.areadigital.config.security;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -9,25 +10,29 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenAuthenticationEntryPoint;
 import org.springframework.security.oauth2.server.resource.web.access.BearerTokenAccessDeniedHandler;
 import org.springframework.security.web.SecurityFilterChain;
 
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 
+import br.com.areadigital.areadigital.config.PasswordHashingExecutor;
+import br.com.areadigital.areadigital.config.jfr.RecordingJwtDecoder;
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import br.com.areadigital.areadigital.config.metrics.MeteredJwtDecoder;
+import br.com.areadigital.areadigital.config.metrics.MeteredJwtEncoder;
 import br.com.areadigital.areadigital.service.UserManagerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
+import java.util.function.Supplier;
+
 /**
  * Configuração de segurança para a aplicação.
  */
@@ -40,24 +45,45 @@ public class WebSecurity {
     private final KeyUtils keyUtils;
     private final PasswordEncoder passwordEncoder;
     private final UserManagerService userDetailsManager;
+    private final AccessTokenRevocationList accessTokenRevocationList;
+    private final AuthMetrics authMetrics;
+    private final OpaqueTokenStore opaqueTokenStore;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    @Value("${access-token.cache.enabled:false}")
+    private boolean accessTokenCacheEnabled;
+
+    @Value("${access-token.cache.maximum-size:10000}")
+    private long accessTokenCacheMaximumSize;
+
+    @Value("${access-token.cache.max-time-to-live:5m}")
+    private Duration accessTokenCacheMaxTimeToLive;
 
     /**
      * Configura a cadeia de filtros de segurança para as requisições HTTP.
+     * <p>
+     * Os tokens de acesso são verificados pelo emissor do tenant da requisição ({@link TenantIssuers}).
      *
-     * @param http a configuração de segurança HTTP
+     * @param http          a configuração de segurança HTTP
+     * @param tenantIssuers os emissores por tenant
      * @return a cadeia de filtros de segurança
      * @throws Exception se ocorrer um erro ao configurar a segurança
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TenantIssuers tenantIssuers) throws Exception {
         http.authorizeHttpRequests((authorize) -> authorize
+                        .requestMatchers("/api/v1/auth/batch").hasRole("ADMIN")
+                        .requestMatchers("/api/v1/users/import").hasRole("ADMIN")
+                        .requestMatchers("/api/v1/auth/introspect").hasRole("ADMIN")
+                        .requestMatchers("/actuator/prometheus").hasRole("ADMIN")
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         .requestMatchers("/h2-console/**").permitAll()
+                        .requestMatchers("/actuator/health/**").permitAll()
                         .anyRequest().authenticated())
                 .csrf().disable()
                 .cors().disable()
                 .httpBasic().disable()
-                .oauth2ResourceServer((oauth2) -> oauth2.jwt((jwt) -> jwt.jwtAuthenticationConverter(jwtToUserConverter)))
+                .oauth2ResourceServer((oauth2) -> oauth2.authenticationManagerResolver(tenantIssuers::authenticationManager))
                 .sessionManagement((session) -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .exceptionHandling((exceptions) -> exceptions
                         .authenticationEntryPoint(new BearerTokenAuthenticationEntryPoint())
@@ -67,13 +93,31 @@ public class WebSecurity {
 
     /**
      * Cria um decodificador JWT para decodificar o token de acesso.
+     * <p>
+     * Com {@code access-token.cache.enabled}, os tokens já verificados ficam em um {@link CachingJwtDecoder}, evitando
+     * repetir a verificação RSA a cada requisição do mesmo cliente.
+     * <p>
+     * Tokens revogados ({@link AccessTokenRevocationList}) são recusados, inclusive quando já estão no cache.
+     * <p>
+     * Tokens opacos ({@code access-token.format: OPAQUE}) são resolvidos no {@link OpaqueTokenStore}, sem verificação
+     * de assinatura, pelo {@link OpaqueTokenDecoder}.
      *
      * @return o decodificador JWT para o token de acesso
      */
     @Bean
     @Primary
     JwtDecoder jwtAccessTokenDecoder() {
-        return NimbusJwtDecoder.withPublicKey(keyUtils.getAccessTokenPublicKey()).build();
+        NimbusJwtDecoder decoder = jwtDecoder(keyUtils::getAccessTokenKeys);
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefault(), accessTokenRevocationList));
+        if (accessTokenCacheEnabled) {
+            log.info("Cache de tokens de acesso habilitado: até {} tokens, no máximo {}",
+                    accessTokenCacheMaximumSize, accessTokenCacheMaxTimeToLive);
+            CachingJwtDecoder cachingDecoder = new CachingJwtDecoder(decoder, accessTokenCacheMaximumSize,
+                    accessTokenCacheMaxTimeToLive, accessTokenRevocationList);
+            authMetrics.monitor("access-token", cachingDecoder, CachingJwtDecoder::stats);
+            return instrument(new OpaqueTokenDecoder(opaqueTokenStore, cachingDecoder, TokenGenerator.ISSUER), AuthMetrics.ACCESS_TOKEN);
+        }
+        return instrument(new OpaqueTokenDecoder(opaqueTokenStore, decoder, TokenGenerator.ISSUER), AuthMetrics.ACCESS_TOKEN);
     }
 
     /**
@@ -83,12 +127,9 @@ public class WebSecurity {
      */
     @Bean
     @Primary
-    JwtEncoder jwtAccessTokenEncoder() {
-        JWK jwk = new RSAKey.Builder(keyUtils.getAccessTokenPublicKey())
-                .privateKey(keyUtils.getAccessTokenPrivateKey())
-                .build();
-        JWKSource<SecurityContext> jwks = new ImmutableJWKSet<>(new JWKSet(jwk));
-        return new NimbusJwtEncoder(jwks);
+    CompactJwtEncoder jwtAccessTokenEncoder() {
+        return new MeteredJwtEncoder(new SigningKeyJwtEncoder(keyUtils::getAccessTokenKeys),
+                authMetrics.jwtEncodeTimer(AuthMetrics.ACCESS_TOKEN));
     }
 
     /**
@@ -99,7 +140,7 @@ public class WebSecurity {
     @Bean
     @Qualifier("jwtRefreshTokenDecoder")
     JwtDecoder jwtRefreshTokenDecoder() {
-        return NimbusJwtDecoder.withPublicKey(keyUtils.getRefreshTokenPublicKey()).build();
+        return instrument(jwtDecoder(keyUtils::getRefreshTokenKeys), AuthMetrics.REFRESH_TOKEN);
     }
 
     /**
@@ -109,12 +150,33 @@ public class WebSecurity {
      */
     @Bean
     @Qualifier("jwtRefreshTokenEncoder")
-    JwtEncoder jwtRefreshTokenEncoder() {
-        JWK jwk = new RSAKey.Builder(keyUtils.getRefreshTokenPublicKey())
-                .privateKey(keyUtils.getRefreshTokenPrivateKey())
-                .build();
-        JWKSource<SecurityContext> jwks = new ImmutableJWKSet<>(new JWKSet(jwk));
-        return new NimbusJwtEncoder(jwks);
+    CompactJwtEncoder jwtRefreshTokenEncoder() {
+        return new MeteredJwtEncoder(new SigningKeyJwtEncoder(keyUtils::getRefreshTokenKeys),
+                authMetrics.jwtEncodeTimer(AuthMetrics.REFRESH_TOKEN));
+    }
+
+    /**
+     * Registra o tempo de cada verificação nas métricas e, com o evento habilitado, no JFR.
+     */
+    private JwtDecoder instrument(JwtDecoder decoder, String tokenType) {
+        return new MeteredJwtDecoder(new RecordingJwtDecoder(decoder, tokenType), authMetrics, tokenType);
+    }
+
+    /**
+     * Cria um decodificador JWT que verifica a assinatura com a chave indicada pelo {@code kid} do token, entre as
+     * chaves aceitas no momento.
+     *
+     * @param keys fornece o conjunto de chaves atual
+     * @return o decodificador JWT
+     */
+    static NimbusJwtDecoder jwtDecoder(Supplier<TokenKeySet> keys) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new KeyIdJWSKeySelector(keys));
+        jwtProcessor.setJWSVerifierFactory(new Ed25519Jca.VerifierFactory());
+        // As claims são validadas pelo NimbusJwtDecoder
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        return new NimbusJwtDecoder(jwtProcessor);
     }
 
     /**
@@ -130,11 +192,19 @@ public class WebSecurity {
         return provider;
     }
 
+    /**
+     * Cria o provedor de autenticação por username e senha. A busca do usuário roda na thread que autentica; o bcrypt,
+     * no {@link PasswordHashingExecutor}.
+     *
+     * @return o provedor de autenticação por username e senha
+     */
     @Bean
     DaoAuthenticationProvider daoAuthenticationProvider() {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setPasswordEncoder(passwordEncoder);
+        provider.setPasswordEncoder(passwordHashingExecutor.encoder(passwordEncoder));
         provider.setUserDetailsService(userDetailsManager);
+        // Regrava no login os hashes gerados com um custo de bcrypt menor que o atual
+        provider.setUserDetailsPasswordService(userDetailsManager);
         return provider;
     }
 }
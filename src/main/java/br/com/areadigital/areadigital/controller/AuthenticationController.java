@@ -1,30 +1,62 @@
 package br.com.areadigital.areadigital.controller;
 
+import br.com.areadigital.areadigital.config.PasswordHashingExecutor;
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import br.com.areadigital.areadigital.config.security.TenantIssuer;
+import br.com.areadigital.areadigital.config.security.TenantIssuers;
 import br.com.areadigital.areadigital.config.security.TokenGenerator;
+import br.com.areadigital.areadigital.dto.BatchTokenDTO;
+import br.com.areadigital.areadigital.dto.IntrospectionDTO;
+import br.com.areadigital.areadigital.dto.IssuedTokenDTO;
 import br.com.areadigital.areadigital.dto.LoginDTO;
 import br.com.areadigital.areadigital.dto.SignupDTO;
 import br.com.areadigital.areadigital.dto.TokenDTO;
 import br.com.areadigital.areadigital.model.User;
+import br.com.areadigital.areadigital.service.TokenIntrospectionService;
+import br.com.areadigital.areadigital.service.TokenRefreshService;
+import br.com.areadigital.areadigital.service.TokenRevocationService;
 import br.com.areadigital.areadigital.service.UserManagerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Map;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Controlador responsável pelas operações relacionadas à autenticação do usuário.
+ * <p>
+ * Os tokens de acesso são emitidos, revogados e verificados pelo emissor do tenant indicado no cabeçalho
+ * {@code tenants.header} ({@link TenantIssuers}); sem o cabeçalho, pelo emissor padrão. Um tenant inválido ou
+ * desconhecido recebe {@code 400}. Cada usuário pertence a um único tenant, o do seu registro: tokens de outro tenant
+ * não são emitidos para ele.
  *
  * @RestController Indica que a classe é um controlador REST.
  * @RequestMapping Define o caminho raiz da API e o versionamento da mesma.
@@ -48,71 +80,241 @@ public class AuthenticationController {
      */
     private final UserManagerService service;
     /**
-     * Provedor de autenticação para autenticação baseada em token JWT de atualização.
+     * Serviço de renovação de tokens.
      */
-    @SuppressWarnings("SpringQualifierCopyableLombok")
-    @Qualifier("jwtRefreshTokenAuthProvider")
-    private final JwtAuthenticationProvider refreshTokenAuthProvider;
+    private final TokenRefreshService tokenRefreshService;
+    /**
+     * Serviço de revogação de tokens.
+     */
+    private final TokenRevocationService tokenRevocationService;
+    /**
+     * Serviço de introspecção de tokens.
+     */
+    private final TokenIntrospectionService tokenIntrospectionService;
+    /**
+     * Emissores dos tokens de acesso por tenant.
+     */
+    private final TenantIssuers tenantIssuers;
+    /**
+     * Métricas do fluxo de autenticação.
+     */
+    private final AuthMetrics authMetrics;
+    /**
+     * Serializa as linhas da resposta da emissão em lote.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Número máximo de usernames por pedido de emissão em lote.
+     */
+    @Value("${token-batch.maximum-size:10000}")
+    private int batchMaximumSize;
 
     /**
      * Registra um novo usuário no sistema.
+     * <p>
+     * O hash da senha é calculado no {@link PasswordHashingExecutor}; a gravação do usuário e a assinatura dos tokens,
+     * na thread da requisição. Um username já cadastrado, em qualquer tenant, é recusado com 409 antes do hash. O
+     * usuário pertence ao tenant da requisição.
      *
-     * @param request DTO contendo as informações do usuário a ser registrado.
+     * @param request     DTO contendo as informações do usuário a ser registrado.
+     * @param httpRequest a requisição, com o cabeçalho do tenant.
      * @return ResponseEntity contendo um token de acesso.
      */
     @PostMapping("/register")
-    public ResponseEntity<TokenDTO> register(@RequestBody SignupDTO request) {
-        User user = new User();
-        user.setUsername(request.getUsername());
-        user.setPassword(request.getPassword());
-
-// userDetailsManager.createUser(user);
-        user = service.createUser(user);
+    public ResponseEntity<TokenDTO> register(@RequestBody SignupDTO request, HttpServletRequest httpRequest) {
+        TenantIssuer tenant = tenantIssuers.resolve(httpRequest);
+        if (service.userExists(request.getUsername())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        User newUser = new User();
+        newUser.setUsername(request.getUsername());
+        newUser.setPassword(request.getPassword());
+        newUser.setTenantId(tenant.tenantId());
 
+        User user = service.createUser(newUser);
         Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(
                 user,
                 user.getPassword(),
                 Collections.emptyList());
 
-        return ResponseEntity.ok(tokenGenerator.createToken(authentication));
+        return ResponseEntity.ok(tokenGenerator.createToken(authentication, tenant));
     }
 
     /**
      * Realiza a autenticação de um usuário através de credenciais de login.
+     * <p>
+     * A verificação da senha é feita no {@link PasswordHashingExecutor}; a busca do usuário e a assinatura dos tokens,
+     * na thread da requisição. Um usuário de outro tenant é recusado como credenciais inválidas.
      *
-     * @param request DTO contendo as credenciais de login do usuário.
+     * @param request     DTO contendo as credenciais de login do usuário.
+     * @param httpRequest a requisição, com o cabeçalho do tenant.
      * @return ResponseEntity contendo um token de acesso.
      */
     @PostMapping("/login")
-    public ResponseEntity<TokenDTO> login(@RequestBody LoginDTO request) {
-        Authentication authentication = daoAuthenticationProvider.authenticate(
-                UsernamePasswordAuthenticationToken.unauthenticated(
-                        request.getUsername(),
-                        request.getPassword()));
+    public ResponseEntity<TokenDTO> login(@RequestBody LoginDTO request, HttpServletRequest httpRequest) {
+        TenantIssuer tenant = tenantIssuers.resolve(httpRequest);
+        Authentication authentication;
+        try {
+            authentication = daoAuthenticationProvider.authenticate(
+                    UsernamePasswordAuthenticationToken.unauthenticated(
+                            request.getUsername(),
+                            request.getPassword()));
+            if (!tenant.includes((User) authentication.getPrincipal())) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+        } catch (RuntimeException e) {
+            authMetrics.login(loginOutcome(e));
+            throw e;
+        }
+        authMetrics.login(AuthMetrics.SUCCESS);
+        return ResponseEntity.ok(tokenGenerator.createToken(authentication, tenant));
+    }
 
-        return ResponseEntity.ok(tokenGenerator.createToken(authentication));
+    private static String loginOutcome(RuntimeException e) {
+        if (e instanceof RejectedExecutionException) {
+            return "rejected";
+        }
+        return e instanceof AuthenticationException ? AuthMetrics.FAILURE : "error";
     }
 
     /**
      * Renova o token de acesso de um usuário através de um token JWT de atualização.
+     * <p>
+     * O token de atualização apresentado é consumido e um novo é devolvido; reapresentar um token já usado revoga
+     * todos os tokens de atualização obtidos a partir do mesmo login. Requisições simultâneas com o mesmo token de
+     * atualização recebem a mesma resposta.
      *
-     * @param request DTO contendo o token JWT de atualização.
-     * @return ResponseEntity contendo um novo token de acesso e o token JWT de atualização.
+     * @param request     DTO contendo o token JWT de atualização.
+     * @param httpRequest a requisição, com o cabeçalho do tenant.
+     * @return ResponseEntity contendo um novo token de acesso e um novo token JWT de atualização.
      */
     @PostMapping("/token")
-    public ResponseEntity<?> token(@RequestBody TokenDTO request) {
-        Authentication authentication = refreshTokenAuthProvider.authenticate(
-                new BearerTokenAuthenticationToken(request.getRefreshToken()));
-        Jwt jwt = (Jwt) authentication.getPrincipal();
-
-        return ResponseEntity.ok(
-                Map.of(
-                        "accessToken", jwt.getTokenValue(),
-                        "refreshToken", request.getRefreshToken(),
-                        "userDetails", jwt.getClaims().get("userDetails")));
+    public ResponseEntity<TokenDTO> token(@RequestBody TokenDTO request, HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(tokenRefreshService.refresh(request.getRefreshToken(), tenantIssuers.resolve(httpRequest)));
+    }
+
+    /**
+     * Emite tokens para vários usuários de uma vez, para serviços internos que provisionam tokens de identidades de
+     * serviço. Exige {@code ROLE_ADMIN}.
+     * <p>
+     * Os usuários são carregados em uma única consulta e os tokens são assinados em paralelo por
+     * {@link TokenGenerator#createTokens}. A resposta é NDJSON ({@code application/x-ndjson}), uma linha
+     * {@link IssuedTokenDTO} por username, escrita à medida que os tokens ficam prontos e, portanto, fora da ordem do
+     * pedido. Usernames inexistentes, ou de usuários de outro tenant, recebem uma linha com
+     * {@code "error":"not_found"}.
+     *
+     * @param request     DTO contendo os usernames.
+     * @param httpRequest a requisição, com o cabeçalho do tenant.
+     * @return ResponseEntity com as linhas NDJSON, ou {@code 400} se o pedido estiver vazio ou passar de
+     * {@code token-batch.maximum-size} usernames.
+     */
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> batch(@RequestBody BatchTokenDTO request, HttpServletRequest httpRequest) {
+        TenantIssuer tenant = tenantIssuers.resolve(httpRequest);
+        if (request.getUsernames() == null || request.getUsernames().isEmpty()
+                || request.getUsernames().size() > batchMaximumSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        Set<String> missing = new HashSet<>(request.getUsernames());
+        List<UsernamePasswordAuthenticationToken> authentications = new ArrayList<>(missing.size());
+        for (User user : service.loadUsersByUsernames(missing)) {
+            if (tenant.includes(user)) {
+                missing.remove(user.getUsername());
+                authentications.add(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+            }
+        }
+
+        StreamingResponseBody body = out -> {
+            for (String username : missing) {
+                writeLine(out, new IssuedTokenDTO(username, null, "not_found"));
+            }
+            tokenGenerator.createTokens(authentications, tenant, (authentication, token) -> writeLine(out,
+                    new IssuedTokenDTO(((User) authentication.getPrincipal()).getUsername(), token, null)));
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Serializa a linha na thread que a produziu e a escreve na resposta, uma linha por vez.
+     */
+    private void writeLine(OutputStream out, IssuedTokenDTO line) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(line);
+            synchronized (out) {
+                out.write(json);
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Revoga os tokens informados (logout). O token de acesso deixa de ser aceito imediatamente, e o token de
+     * atualização é revogado junto com os demais obtidos a partir do mesmo login.
+     * <p>
+     * Como na RFC 7009, tokens inválidos ou já expirados são ignorados e a resposta é sempre {@code 200}.
+     *
+     * @param request     DTO contendo o token de acesso e/ou o token JWT de atualização.
+     * @param httpRequest a requisição, com o cabeçalho do tenant.
+     * @return ResponseEntity vazio.
+     */
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revoke(@RequestBody TokenDTO request, HttpServletRequest httpRequest) {
+        tokenRevocationService.revoke(request, tenantIssuers.resolve(httpRequest));
+        return ResponseEntity.ok().build();
     }
-}
 
+    /**
+     * Introspecção de um token de acesso (RFC 7662), para outros serviços validarem os tokens opacos. Exige
+     * {@code ROLE_ADMIN}.
+     *
+     * @param token       o token de acesso, opaco ou JWT.
+     * @param httpRequest a requisição, com o cabeçalho do tenant.
+     * @return ResponseEntity com {@code "active"} e, para um token ativo, suas claims.
+     */
+    @PostMapping(value = "/introspect", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<IntrospectionDTO> introspect(@RequestParam("token") String token, HttpServletRequest httpRequest) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(tokenIntrospectionService.introspect(token, tenantIssuers.resolve(httpRequest)));
+    }
 
+    /**
+     * Responde {@code 409} quando o username foi cadastrado por outra requisição entre a verificação e a gravação do
+     * registro.
+     *
+     * @param e a exceção lançada na gravação do usuário.
+     * @return ResponseEntity vazio com status {@code 409}.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Void> conflict(DataIntegrityViolationException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
 
+    /**
+     * Responde com o status da exceção quando o tenant da requisição é inválido ou desconhecido, sem passar pela
+     * página de erro, que exige autenticação.
+     *
+     * @param e a exceção lançada pelo {@link TenantIssuers}.
+     * @return ResponseEntity vazio com o status da exceção.
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Void> invalidTenant(ResponseStatusException e) {
+        return ResponseEntity.status(e.getStatusCode()).build();
+    }
 
+    /**
+     * Responde {@code 503} quando o estágio de hash está saturado, indicando ao cliente quando tentar novamente.
+     *
+     * @param e a exceção lançada pelo {@link PasswordHashingExecutor}.
+     * @return ResponseEntity vazio com status {@code 503} e {@code Retry-After}.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> hashingSaturated(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+}
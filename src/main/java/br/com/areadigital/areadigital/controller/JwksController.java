@@ -0,0 +1,55 @@
+package br.com.areadigital.areadigital.controller;
+
+import br.com.areadigital.areadigital.config.security.KeyUtils;
+import br.com.areadigital.areadigital.config.security.TokenKeySet;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+
+/**
+ * Publica as chaves públicas dos tokens de acesso (JWKS), para que outros servidores de recursos verifiquem os tokens
+ * sem precisar do arquivo da chave.
+ * <p>
+ * O JSON e o ETag são calculados uma única vez por conjunto de chaves; clientes que enviam {@code If-None-Match}
+ * recebem {@code 304} enquanto não houver rotação.
+ */
+@RestController
+@RequestMapping("/api/v1/auth")
+@RequiredArgsConstructor
+public class JwksController {
+
+    private static final MediaType JWK_SET = MediaType.parseMediaType("application/jwk-set+json");
+
+    private final KeyUtils keyUtils;
+
+    @Value("${access-token.jwks-max-age:5m}")
+    private Duration maxAge;
+
+    /**
+     * Retorna o JWKS com as chaves aceitas na verificação dos tokens de acesso, incluindo as aposentadas que ainda
+     * possuem tokens válidos.
+     *
+     * @param request a requisição, usada para avaliar o {@code If-None-Match}.
+     * @return o JWKS, ou {@code 304} se o cliente já possui a versão atual.
+     */
+    @GetMapping("/jwks")
+    public ResponseEntity<String> jwks(WebRequest request) {
+        TokenKeySet keys = keyUtils.getAccessTokenKeys();
+        if (request.checkNotModified(keys.getJwkSetETag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(keys.getJwkSetETag())
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic())
+                .contentType(JWK_SET)
+                .body(keys.getJwkSetJson());
+    }
+}
@@ -1,27 +1,87 @@
 package br.com.areadigital.areadigital.controller;
 
+import br.com.areadigital.areadigital.config.security.TenantIssuers;
 import br.com.areadigital.areadigital.model.User;
 import br.com.areadigital.areadigital.dto.UserDTO;
+import br.com.areadigital.areadigital.dto.UserImportSummaryDTO;
 import br.com.areadigital.areadigital.repository.UserRepository;
+import br.com.areadigital.areadigital.service.UserImportReader;
+import br.com.areadigital.areadigital.service.UserImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/api/v1/users")
 @RequiredArgsConstructor
 public class UserController {
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final UserRepository
             userRepository;
+    private final UserImportService userImportService;
+    private final TenantIssuers tenantIssuers;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/{id}")
     @PreAuthorize("#user.id == #id")
     public ResponseEntity<UserDTO> user(@AuthenticationPrincipal User user, @PathVariable Long id) {
-        return ResponseEntity.ok(UserDTO.from(userRepository.findById(id).orElseThrow()));
+        return ResponseEntity.ok(UserDTO.from(userRepository.findSummaryById(id).orElseThrow()));
+    }
+
+    /**
+     * Importa usuários em massa a partir de um arquivo NDJSON ({@code application/x-ndjson}) ou CSV
+     * ({@code text/csv}), no formato descrito em {@link UserImportReader}. Exige {@code ROLE_ADMIN}.
+     * <p>
+     * O arquivo é lido à medida que chega. A resposta é NDJSON: uma linha por registro recusado
+     * ({@code line}, {@code username}, {@code error}), escrita durante a importação, e por fim uma linha com o total
+     * de usuários criados ({@code created}) e de registros recusados ({@code failed}). Os usuários pertencem ao
+     * tenant do cabeçalho {@code tenants.header}; um tenant inválido ou desconhecido recebe {@code 400}.
+     *
+     * @param contentType o formato do arquivo.
+     * @param body        o arquivo.
+     * @param httpRequest a requisição, com o cabeçalho do tenant.
+     * @return ResponseEntity com as linhas NDJSON.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                             InputStream body,
+                                                             HttpServletRequest httpRequest) {
+        String tenantId = tenantIssuers.resolve(httpRequest).tenantId();
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE));
+        StreamingResponseBody response = out -> {
+            UserImportReader reader = csv ? UserImportReader.csv(body) : UserImportReader.ndjson(body, objectMapper);
+            UserImportSummaryDTO summary = userImportService.importUsers(reader, tenantId,
+                    error -> writeLine(out, error));
+            writeLine(out, summary);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(response);
+    }
+
+    private void writeLine(OutputStream out, Object line) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package br.com.areadigital.areadigital.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Pedido de emissão de tokens em lote: os usernames das identidades que devem receber tokens.
+ */
+@Getter
+@Setter
+public class BatchTokenDTO {
+    private List<String> usernames;
+}
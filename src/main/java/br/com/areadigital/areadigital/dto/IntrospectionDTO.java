@@ -0,0 +1,30 @@
+package br.com.areadigital.areadigital.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Resposta da introspecção de um token (RFC 7662). Para um token inativo, apenas {@code "active": false}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IntrospectionDTO {
+    private boolean active;
+    @JsonProperty("token_type")
+    private String tokenType;
+    private String iss;
+    private String sub;
+    private Long iat;
+    private Long exp;
+    private String jti;
+    private String roles;
+
+    public IntrospectionDTO(boolean active) {
+        this.active = active;
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.areadigital.areadigital.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Uma linha da resposta da emissão em lote: os tokens emitidos para o username ou, se ele não pôde ser atendido, o
+ * motivo em {@code error}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IssuedTokenDTO {
+    private String username;
+    @JsonUnwrapped
+    private TokenDTO token;
+    private String error;
+}
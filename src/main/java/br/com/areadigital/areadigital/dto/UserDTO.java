@@ -1,6 +1,7 @@
 package br.com.areadigital.areadigital.dto;
 
 import br.com.areadigital.areadigital.model.User;
+import br.com.areadigital.areadigital.repository.UserSummary;
 import lombok.Builder;
 import lombok.Data;
 
@@ -16,4 +17,11 @@ public class UserDTO {
                 .email(user.getUsername())
                 .build();
     }
+
+    public static UserDTO from(UserSummary user) {
+        return builder()
+                .id(user.getId())
+                .email(user.getUsername())
+                .build();
+    }
 }
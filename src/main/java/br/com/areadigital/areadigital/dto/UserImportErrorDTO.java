@@ -0,0 +1,19 @@
+package br.com.areadigital.areadigital.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Um registro recusado na importação de usuários: a linha do arquivo, o username (se pôde ser lido) e o motivo.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportErrorDTO {
+    private int line;
+    private String username;
+    private String error;
+}
@@ -0,0 +1,18 @@
+package br.com.areadigital.areadigital.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Resultado de uma importação de usuários: quantos foram criados e quantos registros foram recusados.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportSummaryDTO {
+    private int created;
+    private int failed;
+}
@@ -0,0 +1,48 @@
+package br.com.areadigital.areadigital.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Uma mudança de estado em memória feita por um nó, para ser aplicada pelos demais. A tabela só recebe inserções; os
+ * nós a leem em ordem de {@code id}.
+ */
+@Data
+@Builder
+@Entity(name = "tb_change_log")
+@Table(indexes = @Index(columnList = "createdAt"))
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeLogEntry implements Serializable, IBaseEntity<Long> {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ChangeType type;
+
+    private String payload;
+
+    @Column(nullable = false)
+    private String nodeId;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,31 @@
+package br.com.areadigital.areadigital.model;
+
+/**
+ * Tipos de mudança registrados em {@code tb_change_log} e aplicados pelos demais nós.
+ */
+public enum ChangeType {
+    /**
+     * Token de acesso revogado. Conteúdo: {@code "<jti> <exp em segundos>"}.
+     */
+    ACCESS_TOKEN_REVOKED,
+    /**
+     * Família de refresh tokens revogada. Conteúdo: o {@code familyId}.
+     */
+    REFRESH_TOKEN_FAMILY_REVOKED,
+    /**
+     * Usuário criado, alterado ou removido. Conteúdo: o username.
+     */
+    USER_CHANGED,
+    /**
+     * Chaves dos tokens de acesso rotacionadas. Sem conteúdo.
+     */
+    ACCESS_TOKEN_KEYS_ROTATED,
+    /**
+     * Chaves dos tokens de atualização rotacionadas. Sem conteúdo.
+     */
+    REFRESH_TOKEN_KEYS_ROTATED,
+    /**
+     * Usuário criado, para o filtro de usernames. Conteúdo: o username.
+     */
+    USER_CREATED
+}
@@ -0,0 +1,35 @@
+package br.com.areadigital.areadigital.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A última rotação de um tipo de chave ({@code access-token} ou {@code refresh-token}), compartilhada pelos nós do
+ * cluster: apenas o nó que avança {@code rotatedAt} gera o novo par; os demais recarregam as chaves dos arquivos.
+ */
+@Data
+@Builder
+@Entity(name = "tb_key_rotation")
+@AllArgsConstructor
+@NoArgsConstructor
+public class KeyRotation implements Serializable, IBaseEntity<String> {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private Instant rotatedAt;
+
+    @Version
+    private Long version;
+}
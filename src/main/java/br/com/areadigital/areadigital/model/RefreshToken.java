@@ -0,0 +1,50 @@
+package br.com.areadigital.areadigital.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Um refresh token emitido, identificado pelo {@code jti}.
+ * <p>
+ * Todos os tokens obtidos a partir do mesmo login formam uma família ({@code familyId}). Cada token pode ser usado
+ * uma única vez; a reutilização de um token já usado revoga a família inteira.
+ */
+@Data
+@Builder
+@Entity(name = "tb_refresh_token")
+@Table(indexes = @Index(columnList = "familyId"))
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshToken implements Serializable, IBaseEntity<String> {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private String familyId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    private boolean used;
+
+    private boolean revoked;
+
+    @Version
+    private Long version;
+}
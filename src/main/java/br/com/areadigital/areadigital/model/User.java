@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -29,8 +31,11 @@ import java.util.stream.Collectors;
 public class User implements Serializable, UserDetails, IBaseEntity<Long> {
     private static final long serialVersionUID = 1L;
 
+    // Ids reservados de 50 em 50 (uma chamada à sequence a cada 50 inserts), para que as importações em lote
+    // possam agrupar os inserts em batches JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_user_seq")
+    @SequenceGenerator(name = "tb_user_seq", sequenceName = "tb_user_seq", allocationSize = 50)
     private Long id;
 
  
@@ -38,11 +43,17 @@ public class User implements Serializable, UserDetails, IBaseEntity<Long> {
     private String lastname;
     @Column(unique = true)
     private String username;
+    // Tenant (marca) ao qual o usuário pertence; nulo para o emissor padrão. Os usernames continuam únicos entre
+    // todos os tenants
+    private String tenantId;
 
 //    @NotBlank(message = "Email Obrigatório")
     // private String email;
     private String password;
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Carregados apenas quando a consulta pede (ex.: UserRepository.findByUsername, usado no login)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "tb_user_role",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
@@ -0,0 +1,19 @@
+package br.com.areadigital.areadigital.repository;
+
+import br.com.areadigital.areadigital.model.ChangeLogEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+    List<ChangeLogEntry> findTop500ByIdGreaterThanOrderByIdAsc(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from tb_change_log c where c.createdAt < :before")
+    int deleteOlderThan(Instant before);
+}
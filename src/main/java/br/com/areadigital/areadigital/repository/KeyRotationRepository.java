@@ -0,0 +1,16 @@
+package br.com.areadigital.areadigital.repository;
+
+import br.com.areadigital.areadigital.model.KeyRotation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface KeyRotationRepository extends JpaRepository<KeyRotation, String> {
+    @Transactional
+    @Modifying
+    @Query("update tb_key_rotation k set k.rotatedAt = :now, k.version = k.version + 1 where k.id = :id and k.rotatedAt <= :before")
+    int claim(String id, Instant now, Instant before);
+}
@@ -0,0 +1,29 @@
+package br.com.areadigital.areadigital.repository;
+
+import br.com.areadigital.areadigital.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+    List<RefreshToken> findAllByRevokedFalseAndExpiresAtAfter(Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("update tb_refresh_token t set t.used = true where t.id = :id and t.used = false and t.revoked = false")
+    int markUsed(String id);
+
+    @Transactional
+    @Modifying
+    @Query("update tb_refresh_token t set t.revoked = true where t.familyId = :familyId")
+    int revokeFamily(String familyId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from tb_refresh_token t where t.expiresAt < :now")
+    int deleteExpired(Instant now);
+}
@@ -1,11 +1,37 @@
 package br.com.areadigital.areadigital.repository;
 
 import br.com.areadigital.areadigital.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    /**
+     * Busca o usuário para autenticação, já com os papéis, que são necessários para as authorities.
+     */
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByUsername(String username);
+    /**
+     * Busca vários usuários de uma vez, já com os papéis, para a emissão de tokens em lote.
+     */
+    @EntityGraph(attributePaths = "roles")
+    List<User> findAllByUsernameIn(Collection<String> usernames);
     boolean existsByUsername(String username);
+    /**
+     * Dentre os usernames informados, os que já estão cadastrados.
+     */
+    @Query("select u.username from tb_user u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+    /**
+     * Os usernames maiores que {@code after}, em ordem, para percorrer a tabela em páginas pelo índice do username.
+     */
+    @Query("select u.username from tb_user u where u.username > :after order by u.username")
+    List<String> findUsernamesAfter(@Param("after") String after, Pageable page);
+    Optional<UserSummary> findSummaryById(Long id);
 }
@@ -0,0 +1,11 @@
+package br.com.areadigital.areadigital.repository;
+
+/**
+ * Projeção com apenas os dados públicos do usuário; a consulta seleciona somente essas colunas, sem carregar a
+ * entidade nem seus papéis.
+ */
+public interface UserSummary {
+    Long getId();
+
+    String getUsername();
+}
@@ -0,0 +1,21 @@
+package br.com.areadigital.areadigital.service;
+
+import br.com.areadigital.areadigital.model.ChangeType;
+
+/**
+ * Componente que mantém estado em memória e aplica as mudanças feitas pelos outros nós, lidas de
+ * {@code tb_change_log} pelo {@link ChangeLogService}.
+ * <p>
+ * A mesma mudança pode ser entregue mais de uma vez (por exemplo, na inicialização), então a aplicação deve ser
+ * idempotente. Tipos que não interessam ao componente devem ser ignorados.
+ */
+public interface ChangeLogListener {
+
+    /**
+     * Aplica uma mudança feita por outro nó.
+     *
+     * @param type    o tipo da mudança.
+     * @param payload o conteúdo da mudança, no formato descrito em {@link ChangeType}.
+     */
+    void apply(ChangeType type, String payload);
+}
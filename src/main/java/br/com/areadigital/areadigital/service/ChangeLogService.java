@@ -0,0 +1,175 @@
+package br.com.areadigital.areadigital.service;
+
+import br.com.areadigital.areadigital.config.security.KeysRotatedEvent;
+import br.com.areadigital.areadigital.model.ChangeLogEntry;
+import br.com.areadigital.areadigital.model.ChangeType;
+import br.com.areadigital.areadigital.repository.ChangeLogRepository;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Propaga entre os nós do cluster as mudanças no estado mantido em memória (tokens revogados, chaves rotacionadas,
+ * usuários alterados) por meio da tabela {@code tb_change_log}, compartilhada por todos os nós.
+ * <p>
+ * Cada nó grava suas mudanças com {@link #append(ChangeType, String)} e, a cada {@code cluster.change-log.poll-interval-ms},
+ * lê as entradas com {@code id} acima da sua marca d'água (uma consulta pela chave primária) e as entrega aos
+ * {@link ChangeLogListener}. Entradas gravadas pelo próprio nó são ignoradas.
+ * <p>
+ * Como transações concorrentes podem tornar um {@code id} visível depois de um {@code id} maior, a marca d'água só
+ * avança sobre {@code id}s consecutivos ou entradas mais antigas que {@code cluster.change-log.gap-grace}; entradas
+ * acima dela já aplicadas são lembradas para não serem aplicadas de novo. Na inicialização todas as entradas retidas
+ * são aplicadas, de modo que um nó novo conhece as revogações ainda válidas.
+ */
+@Service
+@Slf4j
+public class ChangeLogService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ObjectProvider<ChangeLogListener> listeners;
+    /**
+     * Identificador deste nó.
+     */
+    @Getter
+    private final String nodeId;
+    private final boolean enabled;
+    private final Duration gapGrace;
+    private final Duration retention;
+
+    private long watermark;
+    private final Set<Long> appliedAboveWatermark = new HashSet<>();
+
+    public ChangeLogService(ChangeLogRepository changeLogRepository,
+                            ObjectProvider<ChangeLogListener> listeners,
+                            @Value("${cluster.node-id:${random.uuid}}") String nodeId,
+                            @Value("${cluster.change-log.enabled:false}") boolean enabled,
+                            @Value("${cluster.change-log.gap-grace:5s}") Duration gapGrace,
+                            @Value("${cluster.change-log.retention:1h}") Duration retention) {
+        this.changeLogRepository = changeLogRepository;
+        this.listeners = listeners;
+        this.nodeId = nodeId;
+        this.enabled = enabled;
+        this.gapGrace = gapGrace;
+        this.retention = retention;
+        if (enabled) {
+            log.info("Change log do cluster habilitado no nó {}", nodeId);
+        }
+    }
+
+    /**
+     * Registra uma mudança para que os demais nós a apliquem.
+     *
+     * @param type    o tipo da mudança.
+     * @param payload o conteúdo, no formato descrito em {@link ChangeType}.
+     */
+    public void append(ChangeType type, String payload) {
+        if (!enabled) {
+            return;
+        }
+        changeLogRepository.save(ChangeLogEntry.builder()
+                .type(type)
+                .payload(payload)
+                .nodeId(nodeId)
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Registra várias mudanças do mesmo tipo de uma vez, em uma única transação.
+     *
+     * @param type     o tipo das mudanças.
+     * @param payloads o conteúdo de cada mudança, no formato descrito em {@link ChangeType}.
+     */
+    public void appendAll(ChangeType type, Collection<String> payloads) {
+        if (!enabled || payloads.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        changeLogRepository.saveAll(payloads.stream()
+                .map(payload -> ChangeLogEntry.builder()
+                        .type(type)
+                        .payload(payload)
+                        .nodeId(nodeId)
+                        .createdAt(now)
+                        .build())
+                .toList());
+    }
+
+    @EventListener
+    public void keysRotated(KeysRotatedEvent event) {
+        append(event.accessToken() ? ChangeType.ACCESS_TOKEN_KEYS_ROTATED : ChangeType.REFRESH_TOKEN_KEYS_ROTATED, null);
+    }
+
+    /**
+     * Lê e aplica as mudanças gravadas pelos outros nós desde a última leitura.
+     */
+    @Scheduled(fixedDelayString = "${cluster.change-log.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        if (!enabled) {
+            return;
+        }
+        List<ChangeLogEntry> entries;
+        do {
+            entries = changeLogRepository.findTop500ByIdGreaterThanOrderByIdAsc(watermark);
+            for (ChangeLogEntry entry : entries) {
+                if (appliedAboveWatermark.add(entry.getId()) && !nodeId.equals(entry.getNodeId())) {
+                    apply(entry);
+                }
+            }
+        } while (advanceWatermark(entries) && entries.size() == BATCH_SIZE);
+    }
+
+    /**
+     * Avança a marca d'água sobre as entradas lidas, parando na primeira lacuna recente.
+     *
+     * @return {@code true} se a marca d'água chegou à última entrada lida.
+     */
+    private boolean advanceWatermark(List<ChangeLogEntry> entries) {
+        Instant gapDeadline = Instant.now().minus(gapGrace);
+        for (ChangeLogEntry entry : entries) {
+            if (entry.getId() != watermark + 1 && entry.getCreatedAt().isAfter(gapDeadline)) {
+                return false;
+            }
+            watermark = entry.getId();
+            appliedAboveWatermark.remove(entry.getId());
+        }
+        appliedAboveWatermark.removeIf(id -> id <= watermark);
+        return true;
+    }
+
+    private void apply(ChangeLogEntry entry) {
+        log.debug("Aplicando {} {} do nó {}", entry.getType(), entry.getPayload(), entry.getNodeId());
+        for (ChangeLogListener listener : listeners) {
+            try {
+                listener.apply(entry.getType(), entry.getPayload());
+            } catch (RuntimeException e) {
+                log.error("Falha ao aplicar a mudança {} em {}", entry.getId(), listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    /**
+     * Remove as entradas mais antigas que {@code cluster.change-log.retention}.
+     */
+    @Scheduled(cron = "${cluster.change-log.purge-cron:0 */10 * * * *}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        int deleted = changeLogRepository.deleteOlderThan(Instant.now().minus(retention));
+        log.debug("{} entradas antigas do change log removidas", deleted);
+    }
+}
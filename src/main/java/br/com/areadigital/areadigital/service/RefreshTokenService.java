@@ -0,0 +1,219 @@
+package br.com.areadigital.areadigital.service;
+
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import br.com.areadigital.areadigital.config.security.RefreshTokenStore;
+import br.com.areadigital.areadigital.model.ChangeType;
+import br.com.areadigital.areadigital.model.RefreshToken;
+import br.com.areadigital.areadigital.repository.RefreshTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro dos refresh tokens em {@code tb_refresh_token}, com um índice em memória para que a validação a cada
+ * renovação não precise consultar o banco.
+ * <p>
+ * O índice é carregado na inicialização e mantido junto com a tabela. As mudanças de estado de uma família (consumir
+ * um token, emitir o seguinte, revogar) são serializadas por um lock escolhido pelo {@code familyId} entre
+ * {@link #STRIPES} locks, de modo que renovações de famílias diferentes não disputam o mesmo lock.
+ * <p>
+ * Em um cluster, tokens emitidos por outro nó são buscados no banco na primeira vez que aparecem, e o uso único é
+ * garantido pela atualização condicional de {@code used} na tabela. As revogações de família são propagadas pelo
+ * {@link ChangeLogService}.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RefreshTokenService implements RefreshTokenStore, ChangeLogListener {
+
+    private static final int STRIPES = 64;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final ChangeLogService changeLogService;
+    private final AuthMetrics authMetrics;
+
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final Object[] locks = newLocks();
+
+    @PostConstruct
+    void loadIndex() {
+        for (RefreshToken token : refreshTokenRepository.findAllByRevokedFalseAndExpiresAtAfter(Instant.now())) {
+            index.put(token.getId(), new Entry(token.getFamilyId(), token.getUserId(), token.getExpiresAt(), token.isUsed()));
+        }
+        log.info("{} refresh tokens carregados", index.size());
+    }
+
+    @Override
+    public String issue(Long userId, String familyId, Instant expiresAt) {
+        String tokenId = UUID.randomUUID().toString();
+        String family = familyId != null ? familyId : tokenId;
+        synchronized (lock(family)) {
+            refreshTokenRepository.save(RefreshToken.builder()
+                    .id(tokenId)
+                    .familyId(family)
+                    .userId(userId)
+                    .expiresAt(expiresAt)
+                    .build());
+            index.put(tokenId, new Entry(family, userId, expiresAt, false));
+        }
+        return tokenId;
+    }
+
+    /**
+     * Grava os tokens com um único {@code saveAll}, em inserts agrupados em batches JDBC. Como cada token inicia uma
+     * família que ainda não é conhecida por ninguém, os locks das famílias não são necessários.
+     */
+    @Override
+    public List<String> issueAll(List<Long> userIds, Instant expiresAt) {
+        List<RefreshToken> tokens = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            String tokenId = UUID.randomUUID().toString();
+            tokens.add(RefreshToken.builder()
+                    .id(tokenId)
+                    .familyId(tokenId)
+                    .userId(userId)
+                    .expiresAt(expiresAt)
+                    .build());
+        }
+        refreshTokenRepository.saveAll(tokens);
+        List<String> tokenIds = new ArrayList<>(tokens.size());
+        for (RefreshToken token : tokens) {
+            index.put(token.getId(), new Entry(token.getFamilyId(), token.getUserId(), expiresAt, false));
+            tokenIds.add(token.getId());
+        }
+        return tokenIds;
+    }
+
+    @Override
+    public String consume(String tokenId, Long userId) throws InvalidBearerTokenException {
+        Entry entry = find(tokenId);
+        if (entry == null || !entry.userId.equals(userId) || entry.expiresAt.isBefore(Instant.now())) {
+            authMetrics.refresh("invalid");
+            throw new InvalidBearerTokenException("Refresh token is unknown or revoked");
+        }
+        synchronized (lock(entry.familyId)) {
+            if (index.get(tokenId) != entry) {
+                authMetrics.refresh("invalid");
+                throw new InvalidBearerTokenException("Refresh token is unknown or revoked");
+            }
+            if (entry.used) {
+                revokeFamily(entry.familyId);
+                log.warn("Refresh token {} reutilizado; família {} do usuário {} revogada", tokenId, entry.familyId, userId);
+                authMetrics.refresh("reused");
+                throw new InvalidBearerTokenException("Refresh token was already used");
+            }
+            if (refreshTokenRepository.markUsed(tokenId) == 0) {
+                // Já usado (ou revogado) em outro nó
+                revokeFamily(entry.familyId);
+                log.warn("Refresh token {} reutilizado em outro nó; família {} do usuário {} revogada", tokenId, entry.familyId, userId);
+                authMetrics.refresh("reused");
+                throw new InvalidBearerTokenException("Refresh token was already used");
+            }
+            // Só depois de gravado: se markUsed falhar, a nova tentativa do cliente não é tratada como reutilização
+            entry.used = true;
+        }
+        authMetrics.refresh("rotated");
+        return entry.familyId;
+    }
+
+    @Override
+    public void revoke(String tokenId, Long userId) {
+        Entry entry = find(tokenId);
+        if (entry == null || !entry.userId.equals(userId)) {
+            return;
+        }
+        synchronized (lock(entry.familyId)) {
+            revokeFamily(entry.familyId);
+        }
+    }
+
+    /**
+     * Revoga todos os tokens da família. Percorre o índice inteiro, o que é aceitável por ser raro (só ocorre no logout
+     * ou quando um token é reutilizado). Deve ser chamado com o lock da família.
+     */
+    private void revokeFamily(String familyId) {
+        refreshTokenRepository.revokeFamily(familyId);
+        index.values().removeIf(entry -> entry.familyId.equals(familyId));
+        changeLogService.append(ChangeType.REFRESH_TOKEN_FAMILY_REVOKED, familyId);
+    }
+
+    /**
+     * Remove do índice a família revogada por outro nó.
+     */
+    @Override
+    public void apply(ChangeType type, String payload) {
+        if (type == ChangeType.REFRESH_TOKEN_FAMILY_REVOKED) {
+            synchronized (lock(payload)) {
+                index.values().removeIf(entry -> entry.familyId.equals(payload));
+            }
+        }
+    }
+
+    /**
+     * Busca o token no índice ou, se ele foi emitido por outro nó, no banco.
+     */
+    private Entry find(String tokenId) {
+        if (tokenId == null) {
+            return null;
+        }
+        Entry entry = index.get(tokenId);
+        if (entry == null) {
+            entry = refreshTokenRepository.findById(tokenId)
+                    .filter(token -> !token.isRevoked())
+                    .map(token -> index.computeIfAbsent(token.getId(),
+                            id -> new Entry(token.getFamilyId(), token.getUserId(), token.getExpiresAt(), token.isUsed())))
+                    .orElse(null);
+        }
+        return entry;
+    }
+
+    /**
+     * Remove os tokens expirados do índice e da tabela.
+     */
+    @Scheduled(cron = "${refresh-token.purge-cron:0 0 * * * *}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        index.values().removeIf(entry -> entry.expiresAt.isBefore(now));
+        int deleted = refreshTokenRepository.deleteExpired(now);
+        log.debug("{} refresh tokens expirados removidos", deleted);
+    }
+
+    private Object lock(String familyId) {
+        return locks[Math.floorMod(familyId.hashCode(), STRIPES)];
+    }
+
+    private static Object[] newLocks() {
+        Object[] locks = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    /**
+     * Estado de um token no índice. {@code used} só é alterado com o lock da família.
+     */
+    private static final class Entry {
+        private final String familyId;
+        private final Long userId;
+        private final Instant expiresAt;
+        private volatile boolean used;
+
+        private Entry(String familyId, Long userId, Instant expiresAt, boolean used) {
+            this.familyId = familyId;
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+            this.used = used;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.areadigital.areadigital.service;
+
+import br.com.areadigital.areadigital.config.security.TenantIssuer;
+import br.com.areadigital.areadigital.config.security.TokenGenerator;
+import br.com.areadigital.areadigital.dto.IntrospectionDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Introspecção de tokens de acesso (RFC 7662), para que outros serviços validem os tokens opacos, que só podem ser
+ * resolvidos por este nó, e também os JWTs.
+ * <p>
+ * O token passa pelo mesmo decodificador da cadeia de recursos: um token opaco é buscado no
+ * {@code OpaqueTokenStore} e um JWT tem a assinatura, a validade e a revogação verificadas. Tokens de atualização são
+ * sempre informados como inativos. O decodificador é o do emissor do tenant da requisição.
+ */
+@Service
+@Slf4j
+public class TokenIntrospectionService {
+
+    /**
+     * Informa se o token de acesso está ativo e, se estiver, suas claims.
+     *
+     * @param token  o token de acesso, opaco ou JWT.
+     * @param tenant o emissor do token.
+     * @return a resposta da introspecção.
+     */
+    public IntrospectionDTO introspect(String token, TenantIssuer tenant) {
+        Jwt jwt;
+        try {
+            jwt = tenant.accessTokenDecoder().decode(token);
+        } catch (JwtException e) {
+            log.debug("Token inativo na introspecção: {}", e.getMessage());
+            return new IntrospectionDTO(false);
+        }
+        IntrospectionDTO response = new IntrospectionDTO(true);
+        response.setTokenType("Bearer");
+        response.setIss(jwt.getClaimAsString("iss"));
+        response.setSub(jwt.getSubject());
+        response.setIat(jwt.getIssuedAt() != null ? jwt.getIssuedAt().getEpochSecond() : null);
+        response.setExp(jwt.getExpiresAt() != null ? jwt.getExpiresAt().getEpochSecond() : null);
+        response.setJti(jwt.getId());
+        response.setRoles(jwt.getClaimAsString(TokenGenerator.ROLES_CLAIM));
+        return response;
+    }
+}
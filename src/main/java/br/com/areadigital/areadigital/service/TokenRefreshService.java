@@ -0,0 +1,125 @@
+package br.com.areadigital.areadigital.service;
+
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import br.com.areadigital.areadigital.config.security.TenantIssuer;
+import br.com.areadigital.areadigital.config.security.TokenGenerator;
+import br.com.areadigital.areadigital.dto.TokenDTO;
+import br.com.areadigital.areadigital.model.User;
+import br.com.areadigital.areadigital.util.TokenDigest;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Renovação de tokens com agrupamento das requisições simultâneas para o mesmo refresh token.
+ * <p>
+ * Clientes móveis costumam disparar várias renovações em paralelo com o mesmo refresh token quando o token de acesso
+ * expira. A primeira requisição verifica o refresh token e assina os novos tokens; as demais, simultâneas ou dentro de
+ * {@code refresh-token.coalescing.window}, recebem o mesmo resultado em vez de repetir a criptografia (e em vez de
+ * serem tratadas como reutilização do refresh token, o que revogaria a família). Falhas não são guardadas. As
+ * requisições só são agrupadas dentro do mesmo tenant: o resultado traz um token de acesso do emissor do tenant.
+ * <p>
+ * O refresh token não traz os papéis do usuário: eles são recarregados pelo {@link UserManagerService} (com cache) a
+ * cada renovação, para que um usuário que perdeu um papel, ou foi removido, não o mantenha renovando os tokens. Um
+ * usuário de outro tenant é recusado como um refresh token inválido.
+ */
+@Service
+public class TokenRefreshService {
+
+    private final JwtAuthenticationProvider refreshTokenAuthProvider;
+    private final TokenGenerator tokenGenerator;
+    private final UserManagerService userManagerService;
+    private final AuthMetrics authMetrics;
+    private final AsyncCache<RefreshKey, TokenDTO> results;
+
+    public TokenRefreshService(@Qualifier("jwtRefreshTokenAuthProvider") JwtAuthenticationProvider refreshTokenAuthProvider,
+                               TokenGenerator tokenGenerator,
+                               UserManagerService userManagerService,
+                               AuthMetrics authMetrics,
+                               @Value("${refresh-token.coalescing.window:10s}") Duration window,
+                               @Value("${refresh-token.coalescing.maximum-size:10000}") long maximumSize) {
+        this.refreshTokenAuthProvider = refreshTokenAuthProvider;
+        this.tokenGenerator = tokenGenerator;
+        this.userManagerService = userManagerService;
+        this.authMetrics = authMetrics;
+        this.results = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumSize)
+                .buildAsync();
+    }
+
+    /**
+     * Troca o refresh token por um novo token de acesso e um novo refresh token.
+     *
+     * @param refreshToken o refresh token apresentado.
+     * @param tenant       o emissor do novo token de acesso.
+     * @return os novos tokens; o mesmo resultado para todas as requisições agrupadas.
+     */
+    public TokenDTO refresh(String refreshToken, TenantIssuer tenant) {
+        RefreshKey key = new RefreshKey(TokenDigest.sha256(refreshToken), tenant.tenantId());
+        CompletableFuture<TokenDTO> result = new CompletableFuture<>();
+        CompletableFuture<TokenDTO> inFlight = results.asMap().putIfAbsent(key, result);
+        if (inFlight != null) {
+            authMetrics.refresh("coalesced");
+            return join(inFlight);
+        }
+        try {
+            Authentication authentication = refreshTokenAuthProvider.authenticate(
+                    new BearerTokenAuthenticationToken(refreshToken));
+            result.complete(tokenGenerator.createToken(currentUser(authentication, tenant), tenant));
+        } catch (RuntimeException e) {
+            // Futuros com falha são removidos do cache pelo Caffeine
+            result.completeExceptionally(e);
+        }
+        return join(result);
+    }
+
+    /**
+     * Substitui o principal do refresh token, que traz apenas o id, pelo usuário atual e seus papéis, mantendo o JWT
+     * como credencial para que o {@link TokenGenerator} consuma o refresh token. O refresh token não é consumido se o
+     * usuário não existir mais ou não pertencer ao tenant.
+     */
+    private Authentication currentUser(Authentication authentication, TenantIssuer tenant) {
+        User user;
+        try {
+            user = userManagerService.loadUserById(((User) authentication.getPrincipal()).getId());
+        } catch (UsernameNotFoundException e) {
+            throw new InvalidBearerTokenException("Refresh token user no longer exists");
+        }
+        if (!tenant.includes(user)) {
+            throw new InvalidBearerTokenException("Refresh token user does not belong to the tenant");
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(user, authentication.getCredentials(),
+                user.getAuthorities());
+    }
+
+    /**
+     * A chave do agrupamento: o hash do refresh token e o tenant do novo token de acesso.
+     */
+    private record RefreshKey(ByteBuffer refreshToken, String tenantId) {
+    }
+
+    private static TokenDTO join(CompletableFuture<TokenDTO> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
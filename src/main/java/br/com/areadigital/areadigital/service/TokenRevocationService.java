@@ -0,0 +1,75 @@
+package br.com.areadigital.areadigital.service;
+
+import br.com.areadigital.areadigital.config.security.AccessTokenRevocationList;
+import br.com.areadigital.areadigital.config.security.OpaqueTokenStore;
+import br.com.areadigital.areadigital.config.security.RefreshTokenStore;
+import br.com.areadigital.areadigital.config.security.TenantIssuer;
+import br.com.areadigital.areadigital.dto.TokenDTO;
+import br.com.areadigital.areadigital.model.ChangeType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Revogação de tokens (logout). Os tokens de acesso revogados entram na {@link AccessTokenRevocationList} deste nó e
+ * são registrados no change log para que os demais nós também os recusem. Tokens de acesso opacos são removidos do
+ * {@link OpaqueTokenStore}. Os tokens de acesso JWT são verificados pelo emissor do tenant da requisição.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TokenRevocationService implements ChangeLogListener {
+
+    @Qualifier("jwtRefreshTokenDecoder")
+    private final JwtDecoder refreshTokenDecoder;
+    private final AccessTokenRevocationList accessTokenRevocationList;
+    private final RefreshTokenStore refreshTokenStore;
+    private final ChangeLogService changeLogService;
+    private final OpaqueTokenStore opaqueTokenStore;
+
+    /**
+     * Revoga os tokens informados. Tokens inválidos ou já expirados são ignorados.
+     *
+     * @param request o token de acesso e/ou o token de atualização.
+     * @param tenant  o emissor do token de acesso.
+     */
+    public void revoke(TokenDTO request, TenantIssuer tenant) {
+        if (request.getAccessToken() != null && OpaqueTokenStore.isOpaque(request.getAccessToken())) {
+            opaqueTokenStore.revoke(request.getAccessToken());
+        } else if (request.getAccessToken() != null) {
+            try {
+                Jwt jwt = tenant.accessTokenDecoder().decode(request.getAccessToken());
+                if (jwt.getId() != null) {
+                    accessTokenRevocationList.revoke(jwt.getId(), jwt.getExpiresAt());
+                    changeLogService.append(ChangeType.ACCESS_TOKEN_REVOKED,
+                            jwt.getId() + " " + jwt.getExpiresAt().getEpochSecond());
+                }
+            } catch (JwtException e) {
+                log.debug("Token de acesso inválido ignorado na revogação: {}", e.getMessage());
+            }
+        }
+        if (request.getRefreshToken() != null) {
+            try {
+                Jwt jwt = refreshTokenDecoder.decode(request.getRefreshToken());
+                refreshTokenStore.revoke(jwt.getId(), Long.valueOf(jwt.getSubject()));
+            } catch (JwtException e) {
+                log.debug("Token de atualização inválido ignorado na revogação: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void apply(ChangeType type, String payload) {
+        if (type == ChangeType.ACCESS_TOKEN_REVOKED) {
+            int separator = payload.indexOf(' ');
+            accessTokenRevocationList.revoke(payload.substring(0, separator),
+                    Instant.ofEpochSecond(Long.parseLong(payload.substring(separator + 1))));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package br.com.areadigital.areadigital.service;
+
+import br.com.areadigital.areadigital.dto.SignupDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lê os registros de uma importação de usuários, um por linha, sem carregar o arquivo inteiro em memória.
+ * <p>
+ * Em NDJSON cada linha é um objeto {@code {"username": ..., "password": ...}}. Em CSV a primeira linha é o cabeçalho,
+ * com as colunas {@code username} e {@code password} em qualquer ordem (outras colunas são ignoradas); os campos podem
+ * vir entre aspas duplas, com {@code ""} representando uma aspa. Linhas em branco são ignoradas.
+ */
+public abstract class UserImportReader {
+
+    private final BufferedReader reader;
+    private int lineNumber;
+
+    private UserImportReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cria o leitor de um arquivo NDJSON.
+     */
+    public static UserImportReader ndjson(InputStream in, ObjectMapper objectMapper) {
+        return new UserImportReader(in) {
+            @Override
+            SignupDTO parse(String line) throws JsonProcessingException {
+                return objectMapper.readValue(line, SignupDTO.class);
+            }
+        };
+    }
+
+    /**
+     * Cria o leitor de um arquivo CSV, lendo o cabeçalho.
+     *
+     * @throws IllegalArgumentException se o cabeçalho não tiver as colunas {@code username} e {@code password}.
+     */
+    public static UserImportReader csv(InputStream in) throws IOException {
+        CsvReader reader = new CsvReader(in);
+        reader.readHeader();
+        return reader;
+    }
+
+    /**
+     * Lê o próximo registro.
+     *
+     * @return o registro, com {@link Record#user()} nulo se a linha não pôde ser interpretada, ou {@code null} no fim
+     * do arquivo.
+     */
+    public Record next() throws IOException {
+        String line = nextLine();
+        if (line == null) {
+            return null;
+        }
+        try {
+            return new Record(lineNumber, parse(line));
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return new Record(lineNumber, null);
+        }
+    }
+
+    abstract SignupDTO parse(String line) throws JsonProcessingException;
+
+    String nextLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+        } while (line != null && line.isBlank());
+        return line;
+    }
+
+    /**
+     * Um registro lido.
+     *
+     * @param line o número da linha no arquivo.
+     * @param user o usuário, ou {@code null} se a linha é inválida.
+     */
+    public record Record(int line, SignupDTO user) {
+    }
+
+    private static final class CsvReader extends UserImportReader {
+
+        private int usernameColumn = -1;
+        private int passwordColumn = -1;
+
+        private CsvReader(InputStream in) {
+            super(in);
+        }
+
+        void readHeader() throws IOException {
+            String header = nextLine();
+            List<String> columns = header != null ? split(header) : List.of();
+            for (int i = 0; i < columns.size(); i++) {
+                switch (columns.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "username" -> usernameColumn = i;
+                    case "password" -> passwordColumn = i;
+                    default -> {
+                    }
+                }
+            }
+            if (usernameColumn < 0 || passwordColumn < 0) {
+                throw new IllegalArgumentException("CSV header must have the columns username and password");
+            }
+        }
+
+        @Override
+        SignupDTO parse(String line) {
+            List<String> fields = split(line);
+            if (fields.size() <= Math.max(usernameColumn, passwordColumn)) {
+                throw new IllegalArgumentException("Missing columns");
+            }
+            SignupDTO user = new SignupDTO();
+            user.setUsername(fields.get(usernameColumn));
+            user.setPassword(fields.get(passwordColumn));
+            return user;
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package br.com.areadigital.areadigital.service;
+
+import br.com.areadigital.areadigital.config.PasswordHashingExecutor;
+import br.com.areadigital.areadigital.dto.SignupDTO;
+import br.com.areadigital.areadigital.dto.UserImportErrorDTO;
+import br.com.areadigital.areadigital.dto.UserImportSummaryDTO;
+import br.com.areadigital.areadigital.model.User;
+import br.com.areadigital.areadigital.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Importação de usuários em massa, a partir de um {@link UserImportReader}.
+ * <p>
+ * Os registros são processados em blocos de {@code user-import.chunk-size}. Em cada bloco, os usernames repetidos ou
+ * já cadastrados são recusados com uma única consulta, as senhas dos demais são calculadas em paralelo no
+ * {@link PasswordHashingExecutor} e os usuários são gravados em uma transação, com ids reservados em lote pela
+ * sequence e inserts agrupados em batches JDBC ({@code hibernate.jdbc.batch_size}).
+ * <p>
+ * Um registro recusado não interrompe a importação: ele é informado ao consumidor de erros e o restante continua.
+ * Se a gravação do bloco falhar (por exemplo, um username cadastrado por outra requisição durante a importação), os
+ * usuários do bloco são gravados um a um, cada um na sua transação, para identificar os recusados.
+ * <p>
+ * A importação não usa o {@code EntityManager} do open-in-view: cada transação tem o seu, descartado ao fim. Assim o
+ * contexto de persistência não cresce a cada bloco e uma gravação que falhou não deixa um {@code EntityManager}
+ * inconsistente para as seguintes, o que o Hibernate não suporta.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserImportService {
+
+    static final String INVALID_RECORD = "invalid_record";
+    static final String DUPLICATE_USERNAME = "duplicate_username";
+    static final String CONSTRAINT_VIOLATION = "constraint_violation";
+
+    private final UserRepository userRepository;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final UsernameFilterService usernameFilter;
+
+    @Value("${user-import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${user-import.hashing-share:0.5}")
+    private double hashingShare;
+
+    /**
+     * Importa todos os registros do leitor.
+     *
+     * @param reader   os registros a importar.
+     * @param tenantId o tenant dos usuários criados, ou {@code null} para o emissor padrão.
+     * @param errors   recebe cada registro recusado, à medida que são encontrados.
+     * @return quantos usuários foram criados e quantos registros foram recusados.
+     */
+    public UserImportSummaryDTO importUsers(UserImportReader reader, String tenantId,
+                                            Consumer<UserImportErrorDTO> errors) throws IOException {
+        Result result = new Result(errors);
+        EntityManagerHolder openInView = (EntityManagerHolder) TransactionSynchronizationManager
+                .unbindResourceIfPossible(entityManagerFactory);
+        try {
+            List<UserImportReader.Record> chunk = new ArrayList<>(chunkSize);
+            UserImportReader.Record record;
+            while ((record = reader.next()) != null) {
+                chunk.add(record);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, tenantId, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, tenantId, result);
+            }
+        } finally {
+            if (openInView != null) {
+                TransactionSynchronizationManager.bindResource(entityManagerFactory, openInView);
+            }
+        }
+        log.info("Importação de usuários concluída: {} criados, {} recusados", result.created, result.failed);
+        return new UserImportSummaryDTO(result.created, result.failed);
+    }
+
+    private void importChunk(List<UserImportReader.Record> chunk, String tenantId, Result result) {
+        List<UserImportReader.Record> valid = new ArrayList<>(chunk.size());
+        Set<String> usernames = new HashSet<>();
+        for (UserImportReader.Record record : chunk) {
+            SignupDTO user = record.user();
+            if (user == null || isBlank(user.getUsername()) || isBlank(user.getPassword())) {
+                result.reject(record, INVALID_RECORD);
+            } else if (!usernames.add(user.getUsername())) {
+                result.reject(record, DUPLICATE_USERNAME);
+            } else {
+                valid.add(record);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        // Só os usernames que o filtro não descarta precisam ser conferidos no banco
+        usernames.removeIf(username -> !usernameFilter.mightExist(username));
+        Set<String> existing = usernames.isEmpty()
+                ? Set.of() : new HashSet<>(userRepository.findExistingUsernames(usernames));
+        List<UserImportReader.Record> records = new ArrayList<>(valid.size());
+        for (UserImportReader.Record record : valid) {
+            if (existing.contains(record.user().getUsername())) {
+                result.reject(record, DUPLICATE_USERNAME);
+            } else {
+                records.add(record);
+            }
+        }
+
+        List<String> hashes = hashAll(records);
+        List<User> users = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            User user = new User();
+            user.setUsername(records.get(i).user().getUsername());
+            user.setPassword(hashes.get(i));
+            user.setTenantId(tenantId);
+            users.add(user);
+        }
+        save(records, users, result);
+    }
+
+    /**
+     * Calcula os hashes no estágio de hash de senhas, com no máximo {@code user-import.hashing-share} das threads do
+     * estágio (pelo menos uma) ocupadas pela importação, para que os logins continuem sendo atendidos durante uma
+     * importação. Se o estágio estiver saturado, o hash é calculado na própria thread da importação.
+     */
+    private List<String> hashAll(List<UserImportReader.Record> records) {
+        Semaphore inFlight = new Semaphore(Math.max(1, (int) (passwordHashingExecutor.getParallelism() * hashingShare)));
+        List<CompletableFuture<String>> hashes = new ArrayList<>(records.size());
+        for (UserImportReader.Record record : records) {
+            String password = record.user().getPassword();
+            inFlight.acquireUninterruptibly();
+            CompletableFuture<String> hash = passwordHashingExecutor.submit(() -> passwordEncoder.encode(password));
+            if (hash.isCompletedExceptionally()) {
+                inFlight.release();
+                hash = CompletableFuture.completedFuture(passwordEncoder.encode(password));
+            } else {
+                hash.whenComplete((value, e) -> inFlight.release());
+            }
+            hashes.add(hash);
+        }
+        return hashes.stream().map(CompletableFuture::join).toList();
+    }
+
+    private void save(List<UserImportReader.Record> records, List<User> users, Result result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(users));
+            usernameFilter.addedAll(users.stream().map(User::getUsername).toList());
+            result.created += users.size();
+            return;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Falha ao gravar o bloco de {} usuários; gravando um a um", users.size(), e);
+        }
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            // O id reservado na tentativa anterior foi descartado com o rollback
+            user.setId(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> userRepository.save(user));
+                usernameFilter.added(user.getUsername());
+                result.created++;
+            } catch (DataIntegrityViolationException e) {
+                result.reject(records.get(i), userRepository.existsByUsername(user.getUsername())
+                        ? DUPLICATE_USERNAME : CONSTRAINT_VIOLATION);
+            }
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static final class Result {
+        private final Consumer<UserImportErrorDTO> errors;
+        private int created;
+        private int failed;
+
+        private Result(Consumer<UserImportErrorDTO> errors) {
+            this.errors = errors;
+        }
+
+        private void reject(UserImportReader.Record record, String error) {
+            failed++;
+            errors.accept(new UserImportErrorDTO(record.line(), record.user() != null ? record.user().getUsername() : null, error));
+        }
+    }
+}
@@ -1,54 +1,207 @@
 package br.com.areadigital.areadigital.service;
 
+import br.com.areadigital.areadigital.config.PasswordHashingExecutor;
+import br.com.areadigital.areadigital.config.jfr.UserLookupEvent;
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import br.com.areadigital.areadigital.model.ChangeType;
 import br.com.areadigital.areadigital.model.User;
 import br.com.areadigital.areadigital.repository.UserRepository;
+import br.com.areadigital.areadigital.repository.UserSummary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
-public class UserManagerService implements UserDetailsService   {
+public class UserManagerService implements UserDetailsService, UserDetailsPasswordService, ChangeLogListener {
     private final UserRepository userRepository;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final ChangeLogService changeLogService;
+    private final AuthMetrics authMetrics;
+    private final UsernameFilterService usernameFilter;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
-    
+    @Value("${user-details.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    @Value("${user-details.cache.time-to-live:5m}")
+    private Duration cacheTimeToLive;
+
+    /**
+     * Usuários já carregados, por username. Buscas simultâneas pelo mesmo username compartilham uma única consulta
+     * ao banco; usernames inexistentes não são armazenados.
+     */
+    private Cache<String, User> userCache;
+    /**
+     * Usernames por id, para que {@link #loadUserById(Long)} use o cache de usuários. O username de um usuário não
+     * muda, então as entradas não precisam ser invalidadas.
+     */
+    private Cache<Long, String> usernames;
+
+    @PostConstruct
+    void initUserCache() {
+        userCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTimeToLive)
+                .recordStats()
+                .build();
+        authMetrics.monitor("user-details", userCache, Cache::stats);
+        usernames = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .build();
+    }
+
+
+    /**
+     * Grava um novo usuário. O hash da senha é calculado no {@link PasswordHashingExecutor}; a gravação, na thread
+     * atual.
+     */
     public User createUser(UserDetails user) {
-        ((User) user).setPassword(passwordEncoder.encode(user.getPassword()));
-       return  userRepository.save((User) user);
+        ((User) user).setPassword(passwordHashingExecutor.call(() -> passwordEncoder.encode(user.getPassword())));
+        User saved = userRepository.save((User) user);
+        usernameFilter.added(saved.getUsername());
+        invalidate(saved.getUsername());
+        return saved;
     }
 
-    
-    public void updateUser(UserDetails user) {
 
+    public void updateUser(UserDetails user) {
+        userRepository.save((User) user);
+        invalidate(user.getUsername());
     }
 
-    
-    public void deleteUser(String username) {
 
+    public void deleteUser(String username) {
+        userRepository.findByUsername(username).ifPresent(user -> {
+            userRepository.delete(user);
+            usernameFilter.removed(username);
+        });
+        invalidate(username);
     }
 
-    
-    public void changePassword(String oldPassword, String newPassword) {
 
+    public void changePassword(String oldPassword, String newPassword) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User principal)) {
+            throw new AccessDeniedException("Can't change password as no authenticated user found in context");
+        }
+        User user = userRepository.findById(principal.getId())
+                .orElseThrow(() -> new UsernameNotFoundException(
+                        MessageFormat.format("User with id {0} not found", principal.getId())
+                ));
+        if (!passwordHashingExecutor.call(() -> passwordEncoder.matches(oldPassword, user.getPassword()))) {
+            throw new BadCredentialsException("Current password does not match");
+        }
+        user.setPassword(passwordHashingExecutor.call(() -> passwordEncoder.encode(newPassword)));
+        userRepository.save(user);
+        invalidate(user.getUsername());
     }
 
-    
+
+    /**
+     * Indica se o username já está cadastrado. Usernames descartados pelo {@link UsernameFilterService} são
+     * respondidos sem consultar o banco.
+     */
     public boolean userExists(String username) {
-        return userRepository.existsByUsername(username);
+        return usernameFilter.exists(username);
     }
 
-    
+
+    /**
+     * Carrega vários usuários em uma única consulta, sem passar pelo cache. Usernames inexistentes são ignorados.
+     *
+     * @param usernames os usernames.
+     * @return os usuários encontrados, com os papéis.
+     */
+    public List<User> loadUsersByUsernames(Collection<String> usernames) {
+        return userRepository.findAllByUsernameIn(usernames);
+    }
+
+
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository
-                .findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException(
-                        MessageFormat.format("User with username {0} not found", username)
-                ));
+        UserLookupEvent event = new UserLookupEvent();
+        event.begin();
+        event.source = "cache";
+        User user = userCache.get(username, key -> {
+            event.source = "database";
+            return userRepository.findByUsername(key).orElse(null);
+        });
+        if (event.shouldCommit()) {
+            event.outcome = user != null ? "found" : "not_found";
+            event.commit();
+        }
+        if (user == null) {
+            throw new UsernameNotFoundException(
+                    MessageFormat.format("User with username {0} not found", username)
+            );
+        }
+        return user;
+    }
+
+    /**
+     * Carrega o usuário pelo id, com os papéis atuais, pelo mesmo cache de {@link #loadUserByUsername(String)}. Usado
+     * na renovação de tokens, cujo refresh token traz apenas o id.
+     *
+     * @param id o id do usuário.
+     * @return o usuário.
+     * @throws UsernameNotFoundException se o usuário não existir.
+     */
+    public User loadUserById(Long id) throws UsernameNotFoundException {
+        String username = usernames.get(id, key -> userRepository.findSummaryById(key)
+                .map(UserSummary::getUsername)
+                .orElse(null));
+        if (username == null) {
+            throw new UsernameNotFoundException(MessageFormat.format("User with id {0} not found", id));
+        }
+        return (User) loadUserByUsername(username);
+    }
+
+    /**
+     * Regrava o hash da senha do usuário. Chamado pelo {@code DaoAuthenticationProvider} após um login bem-sucedido
+     * quando o hash armazenado foi gerado com um custo de bcrypt menor que o atual.
+     *
+     * @param user o usuário autenticado.
+     * @param newPassword o novo hash, já calculado com o custo atual.
+     * @return o usuário atualizado.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User entity = (User) user;
+        entity.setPassword(newPassword);
+        User saved = userRepository.save(entity);
+        invalidate(saved.getUsername());
+        return saved;
+    }
+
+    /**
+     * Remove o usuário do cache deste nó e registra a mudança para que os demais nós façam o mesmo.
+     */
+    private void invalidate(String username) {
+        userCache.invalidate(username);
+        changeLogService.append(ChangeType.USER_CHANGED, username);
+    }
+
+    @Override
+    public void apply(ChangeType type, String payload) {
+        if (type == ChangeType.USER_CHANGED) {
+            userCache.invalidate(payload);
+        }
     }
 }
@@ -0,0 +1,126 @@
+package br.com.areadigital.areadigital.service;
+
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import br.com.areadigital.areadigital.model.ChangeType;
+import br.com.areadigital.areadigital.repository.UserRepository;
+import br.com.areadigital.areadigital.util.CountingBloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Filtro de Bloom com todos os usernames cadastrados, para responder sem consultar o banco que um username está
+ * livre.
+ * <p>
+ * O filtro é carregado na inicialização e atualizado a cada usuário criado ou removido por este nó. Usuários criados
+ * em outros nós chegam pelo {@link ChangeLogService} ({@link ChangeType#USER_CREATED}) e são sempre inseridos, mesmo
+ * que o filtro já os indique como presentes: assim toda remoção corresponde a uma inserção do mesmo username e não
+ * decrementa os contadores de outros. Uma inserção a mais (por exemplo, um usuário carregado na inicialização e
+ * também reaplicado do change log) só custa falsos positivos. Como um filtro de Bloom nunca dá falso negativo,
+ * "certamente livre" dispensa a consulta; "talvez cadastrado" é confirmado no banco. Usuários removidos em outros nós
+ * continuam no filtro deste nó, o que só custa uma consulta a mais.
+ * <p>
+ * A taxa de falsos positivos esperada é publicada em {@code auth.username.filter.false.positive.rate} e as consultas
+ * em {@code auth.username.check}, por {@code outcome}.
+ */
+@Service
+@Slf4j
+public class UsernameFilterService implements ChangeLogListener {
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    private final UserRepository userRepository;
+    private final AuthMetrics authMetrics;
+    private final ChangeLogService changeLogService;
+    private final CountingBloomFilter filter;
+
+    public UsernameFilterService(UserRepository userRepository,
+                                 AuthMetrics authMetrics,
+                                 ChangeLogService changeLogService,
+                                 @Value("${username-filter.expected-insertions:1000000}") long expectedInsertions,
+                                 @Value("${username-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.authMetrics = authMetrics;
+        this.changeLogService = changeLogService;
+        this.filter = new CountingBloomFilter(expectedInsertions, falsePositiveRate);
+        load();
+        authMetrics.usernameFilter(filter);
+    }
+
+    /**
+     * Carrega os usernames em páginas ordenadas pelo próprio username, sem manter a tabela inteira em memória.
+     */
+    private void load() {
+        String after = "";
+        List<String> page;
+        do {
+            page = userRepository.findUsernamesAfter(after, PageRequest.ofSize(LOAD_PAGE_SIZE));
+            page.forEach(filter::add);
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1);
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        log.info("Filtro de usernames carregado com {} usuários (falsos positivos esperados: {})",
+                filter.size(), filter.expectedFalsePositiveRate());
+    }
+
+    /**
+     * Indica se o username está cadastrado, consultando o banco apenas quando o filtro não descarta.
+     *
+     * @param username o username.
+     * @return {@code true} se o username já está cadastrado.
+     */
+    public boolean exists(String username) {
+        if (!filter.mightContain(username)) {
+            authMetrics.usernameCheck("absent");
+            return false;
+        }
+        boolean exists = userRepository.existsByUsername(username);
+        authMetrics.usernameCheck(exists ? "present" : "false_positive");
+        return exists;
+    }
+
+    /**
+     * Indica se o username pode estar cadastrado. {@code false} garante que não está.
+     */
+    public boolean mightExist(String username) {
+        return filter.mightContain(username);
+    }
+
+    /**
+     * Registra um usuário criado, neste nó e nos demais.
+     */
+    public void added(String username) {
+        filter.add(username);
+        changeLogService.append(ChangeType.USER_CREATED, username);
+    }
+
+    /**
+     * Registra vários usuários criados, neste nó e nos demais, com uma única gravação no change log.
+     */
+    public void addedAll(Collection<String> usernames) {
+        usernames.forEach(filter::add);
+        changeLogService.appendAll(ChangeType.USER_CREATED, usernames);
+    }
+
+    /**
+     * Registra um usuário removido.
+     */
+    public void removed(String username) {
+        filter.remove(username);
+    }
+
+    /**
+     * Inclui no filtro os usuários criados em outros nós.
+     */
+    @Override
+    public void apply(ChangeType type, String payload) {
+        if (type == ChangeType.USER_CREATED) {
+            filter.add(payload);
+        }
+    }
+}
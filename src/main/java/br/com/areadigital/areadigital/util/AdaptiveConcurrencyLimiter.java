@@ -0,0 +1,189 @@
+package br.com.areadigital.areadigital.util;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de requisições simultâneas que se ajusta à latência observada, no estilo do algoritmo gradiente.
+ * <p>
+ * As latências são agrupadas em janelas de {@link #WINDOW_SAMPLES} requisições. A média de cada janela é comparada com
+ * a média de longo prazo: enquanto a latência se mantém dentro de {@code rttTolerance} vezes a de longo prazo, o limite
+ * cresce cerca de {@code sqrt(limite)}; quando passa disso, o limite é reduzido na proporção do aumento (no máximo pela
+ * metade). Uma requisição descartada pelo servidor (estágio saturado, timeout) reduz o limite em 10%, como no AIMD.
+ * Cada ajuste é suavizado e fica entre {@code minLimit} e {@code maxLimit}.
+ * <p>
+ * {@link #tryAcquire()} nunca bloqueia: acima do limite a requisição é recusada imediatamente.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Requisições por janela de amostragem.
+     */
+    private static final int WINDOW_SAMPLES = 10;
+    /**
+     * Número de janelas que compõem a média de longo prazo.
+     */
+    private static final int LONG_WINDOWS = 100;
+    /**
+     * Peso de cada novo limite calculado.
+     */
+    private static final double SMOOTHING = 0.2;
+    /**
+     * Fator aplicado ao limite quando há requisições descartadas na janela.
+     */
+    private static final double BACKOFF = 0.9;
+
+    /**
+     * Nome do limite, usado nas métricas.
+     */
+    @Getter
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // Estado da janela atual e média de longo prazo, protegidos por this
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowDropped;
+    private int windowMaxInFlight;
+    private double longRtt;
+
+    /**
+     * @param name         nome do limite.
+     * @param initialLimit o limite até as primeiras amostras.
+     * @param minLimit     o menor limite.
+     * @param maxLimit     o maior limite.
+     * @param rttTolerance quanto a latência pode subir em relação à de longo prazo antes de o limite ser reduzido.
+     */
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, double rttTolerance) {
+        if (minLimit <= 0 || minLimit > maxLimit || rttTolerance < 1) {
+            throw new IllegalArgumentException("minLimit must be in (0, maxLimit] and rttTolerance at least 1");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Reserva uma vaga, se houver.
+     *
+     * @return a vaga, que deve ser liberada ao fim da requisição, ou {@code null} se o limite foi atingido.
+     */
+    public Permit tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= getLimit()) {
+                return null;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return new Permit(System.nanoTime(), current + 1);
+    }
+
+    /**
+     * O limite atual de requisições simultâneas.
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * O número de requisições em andamento.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void sample(long rtt, int inFlightAtStart, boolean dropped) {
+        if (dropped) {
+            windowDropped++;
+        } else {
+            windowRttSum += rtt;
+            windowSamples++;
+        }
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+        if (windowSamples + windowDropped < WINDOW_SAMPLES) {
+            return;
+        }
+
+        double current = limit;
+        double next = current;
+        if (windowDropped > 0) {
+            next = current * BACKOFF;
+        } else {
+            double shortRtt = (double) windowRttSum / windowSamples;
+            longRtt = longRtt == 0 ? shortRtt : longRtt + (shortRtt - longRtt) / LONG_WINDOWS;
+            if (longRtt > 2 * shortRtt) {
+                // A latência caiu bastante (ex.: fim de uma rajada): a média de longo prazo acompanha mais rápido
+                longRtt *= 0.95;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+            double estimated = current * gradient + Math.sqrt(current);
+            // Com menos da metade do limite em uso a janela não diz se o limite poderia ser maior
+            if (estimated < current || windowMaxInFlight >= current / 2) {
+                next = estimated;
+            }
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, current * (1 - SMOOTHING) + next * SMOOTHING));
+
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowDropped = 0;
+        windowMaxInFlight = 0;
+    }
+
+    /**
+     * Vaga reservada por uma requisição. Deve ser liberada uma única vez, por um dos métodos abaixo; chamadas
+     * seguintes são ignoradas.
+     */
+    public final class Permit {
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * A requisição foi atendida: sua latência entra no cálculo do limite.
+         */
+        public void success() {
+            if (release()) {
+                sample(System.nanoTime() - startNanos, inFlightAtStart, false);
+            }
+        }
+
+        /**
+         * A requisição foi descartada por sobrecarga: o limite é reduzido.
+         */
+        public void dropped() {
+            if (release()) {
+                sample(0, inFlightAtStart, true);
+            }
+        }
+
+        /**
+         * A requisição terminou sem uma latência representativa (erro, resposta em streaming): apenas libera a vaga.
+         */
+        public void ignore() {
+            release();
+        }
+
+        private boolean release() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package br.com.areadigital.areadigital.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom com contadores, que também permite remover valores, seguro para uso concorrente sem locks.
+ * <p>
+ * Cada posição é um contador de 4 bits (16 por {@code long}), incrementado na inserção e decrementado na remoção. Um
+ * contador que chega a 15 fica saturado e não é mais decrementado, o que pode deixar falsos positivos, mas nunca
+ * falsos negativos. Como no {@link BloomFilter}, {@link #mightContain(String)} nunca devolve {@code false} para um
+ * valor inserido e não removido.
+ * <p>
+ * {@link #remove(String)} só deve ser chamado para valores inseridos; remover um valor nunca inserido que por acaso
+ * colida com outros pode causar falsos negativos.
+ */
+public class CountingBloomFilter {
+
+    private static final int COUNTER_BITS = 4;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+
+    private final AtomicLongArray counters;
+    private final long size;
+    private final int hashFunctions;
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * Cria um filtro dimensionado para o número de valores e a taxa de falsos positivos desejados.
+     *
+     * @param expectedInsertions o número de valores que se espera manter no filtro.
+     * @param falsePositiveRate  a taxa de falsos positivos aceitável, entre 0 e 1.
+     */
+    public CountingBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("expectedInsertions must be positive and falsePositiveRate in (0, 1)");
+        }
+        long size = Math.max(COUNTERS_PER_WORD,
+                (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        this.counters = new AtomicLongArray(Math.toIntExact((size + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD));
+        this.size = (long) counters.length() * COUNTERS_PER_WORD;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) this.size / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Insere o valor no filtro.
+     */
+    public void add(String value) {
+        long hash = BloomFilter.hash(value);
+        long h1 = BloomFilter.mix(hash);
+        long h2 = BloomFilter.mix(hash ^ 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            update(Long.remainderUnsigned(h1 + i * h2, size), 1);
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * Remove um valor inserido.
+     *
+     * @return {@code false} se o valor certamente não estava no filtro, caso em que nada é alterado.
+     */
+    public boolean remove(String value) {
+        if (!mightContain(value)) {
+            return false;
+        }
+        long hash = BloomFilter.hash(value);
+        long h1 = BloomFilter.mix(hash);
+        long h2 = BloomFilter.mix(hash ^ 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            update(Long.remainderUnsigned(h1 + i * h2, size), -1);
+        }
+        count.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Indica se o valor pode estar no filtro. {@code false} garante que não está.
+     */
+    public boolean mightContain(String value) {
+        long hash = BloomFilter.hash(value);
+        long h1 = BloomFilter.mix(hash);
+        long h2 = BloomFilter.mix(hash ^ 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Long.remainderUnsigned(h1 + i * h2, size);
+            if (counter(counters.get(word(index)), index) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * O número de valores no filtro: inserções menos remoções.
+     */
+    public long size() {
+        return count.get();
+    }
+
+    /**
+     * A taxa de falsos positivos esperada para o número atual de valores, {@code (1 - e^(-kn/m))^k}.
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashFunctions * Math.max(0, count.get()) / size), hashFunctions);
+    }
+
+    /**
+     * Soma {@code delta} (1 ou -1) ao contador, exceto se ele estiver saturado ou se a soma o levar abaixo de zero.
+     */
+    private void update(long index, int delta) {
+        int word = word(index);
+        int shift = (int) (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+        long current;
+        while (true) {
+            current = counters.get(word);
+            long counter = (current >>> shift) & COUNTER_MASK;
+            if (counter == COUNTER_MASK || counter + delta < 0) {
+                return;
+            }
+            if (counters.compareAndSet(word, current, current + ((long) delta << shift))) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static int word(long index) {
+        return (int) (index / COUNTERS_PER_WORD);
+    }
+
+    private static long counter(long word, long index) {
+        return (word >>> ((int) (index % COUNTERS_PER_WORD) * COUNTER_BITS)) & COUNTER_MASK;
+    }
+}
@@ -0,0 +1,436 @@
+package br.com.areadigital.areadigital.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Log de registros só de acréscimo, dividido em segmentos de tamanho fixo mapeados em memória
+ * ({@code <id>.seg} no diretório informado).
+ * <p>
+ * Cada registro tem um tipo, um instante de expiração, uma chave e um valor, e é identificado pelo seu endereço
+ * ({@code id} do segmento nos 32 bits altos, posição no segmento nos baixos), que quem usa o log guarda no seu índice
+ * em memória. As gravações são sequenciais no segmento ativo; as leituras devolvem visões sobre o próprio mapeamento,
+ * sem cópia. Cada registro leva um CRC32C, de modo que um registro incompleto (processo interrompido no meio de uma
+ * gravação) encerra a leitura do segmento na inicialização.
+ * <p>
+ * Um segmento cujos registros já expiraram é apagado inteiro; um segmento com poucos registros vivos é compactado:
+ * os registros vivos são copiados para o segmento ativo ({@link Compaction#relocate(Record)}, que deve atualizar o
+ * índice) e o segmento é apagado. Um endereço de um segmento apagado deixa de ser encontrado por {@link #read(long)};
+ * quem o leu antes continua com uma visão válida.
+ * <p>
+ * Sem diretório, os segmentos ficam em buffers fora do heap e nada é persistido.
+ * <p>
+ * Layout de um registro: {@code int} tamanho total, {@code int} CRC32C do restante, {@code byte} tipo, {@code long}
+ * expiração (segundos desde a época), {@code short} tamanho da chave, chave em UTF-8 e valor. Um tamanho zero marca o
+ * fim dos registros do segmento.
+ */
+@Slf4j
+public class SegmentLog implements Closeable {
+
+    private static final int TYPE_OFFSET = 8;
+    private static final int EXPIRES_AT_OFFSET = 9;
+    private static final int KEY_LENGTH_OFFSET = 17;
+    private static final int HEADER_BYTES = 19;
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final ConcurrentNavigableMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Object compactionLock = new Object();
+
+    // Segmento ativo e posição da próxima gravação, protegidos por this
+    private Segment active;
+    private int position;
+
+    /**
+     * Abre o log, lendo os segmentos existentes no diretório.
+     *
+     * @param directory   o diretório dos segmentos, criado se não existir, ou {@code null} para manter os segmentos
+     *                    apenas em memória.
+     * @param segmentSize o tamanho de cada segmento, em bytes.
+     * @throws IllegalStateException se o diretório estiver em uso por outro processo.
+     */
+    public SegmentLog(Path directory, int segmentSize) {
+        if (segmentSize <= HEADER_BYTES) {
+            throw new IllegalArgumentException("segmentSize must be greater than " + HEADER_BYTES);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        if (directory == null) {
+            lockChannel = null;
+            lock = null;
+            active = new Segment(0, ByteBuffer.allocateDirect(segmentSize), null);
+            segments.put(0, active);
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            lockChannel = FileChannel.open(directory.resolve("lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            lock = tryLock(lockChannel);
+            if (lock == null) {
+                lockChannel.close();
+                throw new IllegalStateException("Diretório " + directory + " em uso por outro processo");
+            }
+            for (Path file : segmentFiles()) {
+                Segment segment = scan(Integer.parseInt(file.getFileName().toString().replace(SUFFIX, "")), file);
+                segments.put(segment.id, segment);
+            }
+            active = segments.isEmpty() ? newSegment(0) : segments.lastEntry().getValue();
+            position = active.limit;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("{} segmento(s) abertos em {} ({} bytes)", segments.size(), directory, bytes());
+    }
+
+    /**
+     * Acrescenta um registro ao log.
+     *
+     * @param type      o tipo do registro.
+     * @param expiresAt o instante, em segundos desde a época, a partir do qual o registro pode ser descartado.
+     * @param key       a chave, com no máximo 65535 bytes em UTF-8.
+     * @param value     o valor.
+     * @return o endereço do registro.
+     */
+    public synchronized long append(byte type, long expiresAt, String key, byte[] value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = HEADER_BYTES + keyBytes.length + value.length;
+        if (keyBytes.length > 0xFFFF || length > segmentSize) {
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit in a segment");
+        }
+        ByteBuffer buffer = reserve(length);
+        int offset = position;
+        buffer.put(offset + TYPE_OFFSET, type)
+                .putLong(offset + EXPIRES_AT_OFFSET, expiresAt)
+                .putShort(offset + KEY_LENGTH_OFFSET, (short) keyBytes.length)
+                .put(offset + HEADER_BYTES, keyBytes)
+                .put(offset + HEADER_BYTES + keyBytes.length, value);
+        return commit(offset, length, expiresAt);
+    }
+
+    /**
+     * Copia um registro, sem alterá-lo, para o fim do log.
+     *
+     * @return o novo endereço do registro.
+     */
+    public synchronized long copy(Record record) {
+        int length = record.length();
+        ByteBuffer buffer = reserve(length);
+        int offset = position;
+        buffer.put(offset + 4, record.buffer, record.offset + 4, length - 4);
+        return commit(offset, length, record.expiresAt());
+    }
+
+    /**
+     * Lê um registro.
+     *
+     * @param address o endereço devolvido por {@link #append} ou {@link #copy}.
+     * @return o registro, ou {@code null} se o seu segmento foi apagado.
+     */
+    public Record read(long address) {
+        Segment segment = segments.get((int) (address >>> 32));
+        int offset = (int) address;
+        if (segment == null || offset >= segment.limit) {
+            return null;
+        }
+        return new Record(segment.buffer, offset, address);
+    }
+
+    /**
+     * Percorre todos os registros, na ordem em que foram gravados.
+     */
+    public void replay(Consumer<Record> consumer) {
+        for (Segment segment : segments.values()) {
+            forEach(segment, consumer);
+        }
+    }
+
+    /**
+     * Apaga os segmentos cujos registros expiraram e compacta aqueles em que os registros vivos ocupam menos que
+     * {@code minLiveRatio} do segmento. O segmento ativo não é considerado. Os registros realocados são gravados em
+     * disco antes que o segmento de origem seja apagado.
+     *
+     * @param now          o instante, em segundos desde a época, antes do qual os registros estão expirados.
+     * @param minLiveRatio a fração mínima do segmento ocupada por registros vivos para que ele seja mantido.
+     * @param compaction   decide quais registros estão vivos e os realoca.
+     * @return o número de segmentos apagados.
+     */
+    public int compact(long now, double minLiveRatio, Compaction compaction) {
+        synchronized (compactionLock) {
+            int head;
+            synchronized (this) {
+                head = active.id;
+            }
+            int dropped = 0;
+            for (Segment segment : segments.headMap(head).values()) {
+                if (segment.maxExpiresAt < now) {
+                    drop(segment, 0);
+                    dropped++;
+                    continue;
+                }
+                List<Record> live = new ArrayList<>();
+                long[] liveBytes = {0};
+                forEach(segment, record -> {
+                    if (record.expiresAt() >= now && compaction.isLive(record)) {
+                        live.add(record);
+                        liveBytes[0] += record.length();
+                    }
+                });
+                if (liveBytes[0] < minLiveRatio * segment.buffer.capacity()) {
+                    live.forEach(compaction::relocate);
+                    if (!live.isEmpty()) {
+                        // As cópias precisam estar em disco antes que o original seja apagado
+                        flush();
+                    }
+                    drop(segment, live.size());
+                    dropped++;
+                }
+            }
+            return dropped;
+        }
+    }
+
+    /**
+     * Grava em disco as alterações do segmento ativo.
+     */
+    public synchronized void flush() {
+        if (active.buffer instanceof MappedByteBuffer mapped) {
+            mapped.force();
+        }
+    }
+
+    /**
+     * O número de segmentos.
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * O número de bytes ocupados por registros, vivos ou não.
+     */
+    public long bytes() {
+        return segments.values().stream().mapToLong(segment -> segment.limit).sum();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        if (lock != null) {
+            lock.release();
+            lockChannel.close();
+        }
+    }
+
+    /**
+     * Garante espaço para um registro no segmento ativo, passando para um novo segmento se necessário.
+     */
+    private ByteBuffer reserve(int length) {
+        if (position + length > active.buffer.capacity()) {
+            flush();
+            try {
+                active = newSegment(active.id + 1);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+        }
+        return active.buffer;
+    }
+
+    /**
+     * Conclui a gravação do registro: o tamanho é escrito por último, depois do CRC, para que um registro só seja
+     * lido depois de completo.
+     */
+    private long commit(int offset, int length, long expiresAt) {
+        ByteBuffer buffer = active.buffer;
+        buffer.putInt(offset + 4, crc(buffer, offset, length));
+        buffer.putInt(offset, length);
+        position += length;
+        active.maxExpiresAt = Math.max(active.maxExpiresAt, expiresAt);
+        active.limit = position;
+        return ((long) active.id << 32) | offset;
+    }
+
+    private void forEach(Segment segment, Consumer<Record> consumer) {
+        int limit = segment.limit;
+        for (int offset = 0; offset < limit; offset += segment.buffer.getInt(offset)) {
+            consumer.accept(new Record(segment.buffer, offset, ((long) segment.id << 32) | offset));
+        }
+    }
+
+    private Segment newSegment(int id) throws IOException {
+        Segment segment = directory == null
+                ? new Segment(id, ByteBuffer.allocateDirect(segmentSize), null)
+                : map(id, directory.resolve(String.format("%010d%s", id, SUFFIX)), segmentSize);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private static Segment map(int id, Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // O mapeamento continua válido depois que o canal é fechado
+            return new Segment(id, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), file);
+        }
+    }
+
+    /**
+     * Mapeia um segmento existente e encontra o fim dos seus registros válidos.
+     */
+    private static Segment scan(int id, Path file) throws IOException {
+        Segment segment = map(id, file, Files.size(file));
+        ByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length < HEADER_BYTES || offset + length > buffer.capacity()
+                    || buffer.getInt(offset + 4) != crc(buffer, offset, length)) {
+                log.warn("Registro inválido na posição {} de {}; os registros seguintes do segmento são descartados", offset, file);
+                // Zera o restante para que os próximos registros gravados não sejam seguidos de restos do inválido
+                buffer.put(offset, new byte[buffer.capacity() - offset]);
+                break;
+            }
+            segment.maxExpiresAt = Math.max(segment.maxExpiresAt, buffer.getLong(offset + EXPIRES_AT_OFFSET));
+            offset += length;
+        }
+        segment.limit = offset;
+        return segment;
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Já aberto por esta JVM
+            return null;
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+    }
+
+    private void drop(Segment segment, int relocated) {
+        segments.remove(segment.id);
+        if (segment.file != null) {
+            try {
+                Files.deleteIfExists(segment.file);
+            } catch (IOException e) {
+                log.warn("Falha ao apagar o segmento {}", segment.file, e);
+            }
+        }
+        log.debug("Segmento {} apagado ({} registros realocados)", segment.id, relocated);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + TYPE_OFFSET, length - TYPE_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Decide, na compactação, quais registros ainda são necessários.
+     */
+    public interface Compaction {
+
+        /**
+         * Indica se o registro, ainda não expirado, continua em uso.
+         */
+        boolean isLive(Record record);
+
+        /**
+         * Copia o registro com {@link #copy(Record)} e atualiza o índice com o novo endereço, se o registro ainda
+         * estiver em uso.
+         */
+        void relocate(Record record);
+    }
+
+    /**
+     * Um registro, lido diretamente do segmento.
+     */
+    public static final class Record {
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final long address;
+
+        private Record(ByteBuffer buffer, int offset, long address) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.address = address;
+        }
+
+        public long address() {
+            return address;
+        }
+
+        public byte type() {
+            return buffer.get(offset + TYPE_OFFSET);
+        }
+
+        public long expiresAt() {
+            return buffer.getLong(offset + EXPIRES_AT_OFFSET);
+        }
+
+        public String key() {
+            byte[] key = new byte[keyLength()];
+            buffer.get(offset + HEADER_BYTES, key);
+            return new String(key, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * O valor, como uma visão somente leitura sobre o segmento.
+         */
+        public ByteBuffer value() {
+            int start = HEADER_BYTES + keyLength();
+            return buffer.slice(offset + start, length() - start).asReadOnlyBuffer();
+        }
+
+        private int length() {
+            return buffer.getInt(offset);
+        }
+
+        private int keyLength() {
+            return buffer.getShort(offset + KEY_LENGTH_OFFSET) & 0xFFFF;
+        }
+    }
+
+    private static final class Segment {
+        private final int id;
+        private final ByteBuffer buffer;
+        private final Path file;
+        private volatile int limit;
+        private volatile long maxExpiresAt = Long.MIN_VALUE;
+
+        private Segment(int id, ByteBuffer buffer, Path file) {
+            this.id = id;
+            this.buffer = buffer;
+            this.file = file;
+        }
+    }
+}
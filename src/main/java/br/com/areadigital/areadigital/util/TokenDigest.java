@@ -0,0 +1,33 @@
+package br.com.areadigital.areadigital.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 de tokens, usado como chave de caches para que o valor do token não fique retido em memória.
+ */
+public final class TokenDigest {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private TokenDigest() {
+    }
+
+    /**
+     * Calcula o SHA-256 do token.
+     *
+     * @param token o token, em ASCII (JWTs e tokens opacos em base64url).
+     * @return o hash, pronto para ser usado como chave de {@link java.util.Map}.
+     */
+    public static ByteBuffer sha256(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
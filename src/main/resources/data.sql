@@ -1,3 +1,3 @@
 
-INSERT INTO public.tb_role (id, authority) VALUES (1, 'ROLE_ADMIN');
+MERGE INTO public.tb_role (id, authority) KEY (id) VALUES (1, 'ROLE_ADMIN');
 
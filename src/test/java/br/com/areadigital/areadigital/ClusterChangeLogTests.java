@@ -0,0 +1,228 @@
+package br.com.areadigital.areadigital;
+
+import br.com.areadigital.areadigital.config.security.KeyUtils;
+import br.com.areadigital.areadigital.config.security.TokenKeySet;
+import br.com.areadigital.areadigital.dto.TokenDTO;
+import br.com.areadigital.areadigital.model.Role;
+import br.com.areadigital.areadigital.model.User;
+import br.com.areadigital.areadigital.repository.UserRepository;
+import br.com.areadigital.areadigital.service.UserManagerService;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dois nós (contextos) compartilhando o mesmo banco H2 e as mesmas chaves, cada um com o seu diretório de tokens: as
+ * mudanças feitas em um nó chegam ao outro pelo change log.
+ */
+class ClusterChangeLogTests {
+
+    private static final Duration PROPAGATION_TIMEOUT = Duration.ofSeconds(10);
+
+    @TempDir
+    static Path directory;
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static final TestRestTemplate rest = new TestRestTemplate();
+
+    @BeforeAll
+    static void startNodes() {
+        String database = "jdbc:h2:mem:cluster-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        nodeA = start("a", database);
+        nodeB = start("b", database);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void accessTokenRevokedOnOneNodeIsRejectedByTheOther() {
+        TokenDTO tokens = register(nodeA, "revoked");
+        assertThat(getUser(nodeB, tokens).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        TokenDTO revoke = new TokenDTO(null, tokens.getAccessToken(), null);
+        assertThat(rest.postForEntity(url(nodeA, "/api/v1/auth/revoke"), revoke, Void.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+
+        assertThat(getUser(nodeA, tokens).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(eventually(() -> getUser(nodeB, tokens).getStatusCode() == HttpStatus.UNAUTHORIZED)).isTrue();
+    }
+
+    @Test
+    void roleRemovedOnOneNodeIsDroppedByTheOtherOnRefresh() {
+        TokenDTO tokens = register(nodeA, "demoted");
+        setAdmin(nodeA, "demoted", true);
+
+        // O nó B carrega o usuário, já administrador, no seu cache
+        TokenDTO[] current = {refresh(nodeB, tokens)};
+        assertThat(introspect(nodeB, current[0]).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        setAdmin(nodeA, "demoted", false);
+
+        assertThat(eventually(() -> {
+            current[0] = refresh(nodeB, current[0]);
+            return introspect(nodeB, current[0]).getStatusCode() == HttpStatus.FORBIDDEN;
+        })).isTrue();
+    }
+
+    @Test
+    void keysRotatedOnOneNodeAreLoadedByTheOther() {
+        KeyUtils keysA = nodeA.getBean(KeyUtils.class);
+        KeyUtils keysB = nodeB.getBean(KeyUtils.class);
+        String accessKeyId = signingKeyId(keysA, KeyUtils::getAccessTokenKeys);
+        String refreshKeyId = signingKeyId(keysA, KeyUtils::getRefreshTokenKeys);
+
+        // O cron dispara nos dois nós: apenas o primeiro gera um novo par
+        keysA.rotateAccessTokenKeys();
+        keysA.rotateRefreshTokenKeys();
+        keysB.rotateAccessTokenKeys();
+        keysB.rotateRefreshTokenKeys();
+
+        String rotatedAccessKeyId = signingKeyId(keysA, KeyUtils::getAccessTokenKeys);
+        String rotatedRefreshKeyId = signingKeyId(keysA, KeyUtils::getRefreshTokenKeys);
+        assertThat(rotatedAccessKeyId).isNotEqualTo(accessKeyId);
+        assertThat(rotatedRefreshKeyId).isNotEqualTo(refreshKeyId);
+        assertThat(eventually(() -> rotatedAccessKeyId.equals(signingKeyId(keysB, KeyUtils::getAccessTokenKeys))
+                && rotatedRefreshKeyId.equals(signingKeyId(keysB, KeyUtils::getRefreshTokenKeys)))).isTrue();
+
+        TokenDTO tokens = register(nodeA, "rotated");
+        assertThat(keyId(tokens.getAccessToken())).isEqualTo(rotatedAccessKeyId);
+        assertThat(keyId(tokens.getRefreshToken())).isEqualTo(rotatedRefreshKeyId);
+        assertThat(getUser(nodeB, tokens).getStatusCode()).isEqualTo(HttpStatus.OK);
+        TokenDTO refreshed = refresh(nodeB, tokens);
+        assertThat(getUser(nodeA, refreshed).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private static ConfigurableApplicationContext start(String node, String database) {
+        Path keys = directory.resolve("keys");
+        // Como argumentos, para prevalecer sobre o application.yml
+        return new SpringApplicationBuilder(AreadigitalApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + database,
+                "--spring.jpa.show-sql=false",
+                "--spring.devtools.restart.enabled=false",
+                "--spring.devtools.livereload.enabled=false",
+                "--cluster.node-id=" + node,
+                "--cluster.change-log.enabled=true",
+                "--cluster.change-log.poll-interval-ms=100",
+                "--token-store.directory=" + directory.resolve("token-store-" + node),
+                "--warm-up.enabled=false",
+                // Um ciclo longo: a rotação só acontece quando o teste a chama
+                "--access-token.rotation-cron=0 0 0 1 1 *",
+                "--refresh-token.rotation-cron=0 0 0 1 1 *",
+                "--access-token.private=" + keys.resolve("access-token-private.key"),
+                "--access-token.public=" + keys.resolve("access-token-public.key"),
+                "--refresh-token.private=" + keys.resolve("refresh-token-private.key"),
+                "--refresh-token.public=" + keys.resolve("refresh-token-public.key"));
+    }
+
+    private static TokenDTO register(ConfigurableApplicationContext node, String username) {
+        ResponseEntity<TokenDTO> response = rest.postForEntity(url(node, "/api/v1/auth/register"),
+                Map.of("username", username, "password", "pw"), TokenDTO.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+
+    private static TokenDTO refresh(ConfigurableApplicationContext node, TokenDTO tokens) {
+        ResponseEntity<TokenDTO> response = rest.postForEntity(url(node, "/api/v1/auth/token"),
+                new TokenDTO(null, null, tokens.getRefreshToken()), TokenDTO.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+
+    private static ResponseEntity<String> getUser(ConfigurableApplicationContext node, TokenDTO tokens) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(tokens.getAccessToken());
+        return rest.exchange(url(node, "/api/v1/users/" + tokens.getUserId()), HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+    }
+
+    /**
+     * Uma rota que exige {@code ROLE_ADMIN}: {@code 200} para um administrador, {@code 403} para os demais.
+     */
+    private static ResponseEntity<String> introspect(ConfigurableApplicationContext node, TokenDTO tokens) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(tokens.getAccessToken());
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("token", tokens.getAccessToken());
+        return rest.postForEntity(url(node, "/api/v1/auth/introspect"), new HttpEntity<>(form, headers), String.class);
+    }
+
+    /**
+     * Concede ou retira {@code ROLE_ADMIN} pelo {@link UserManagerService} do nó, que registra a mudança no change log.
+     */
+    private static void setAdmin(ConfigurableApplicationContext node, String username, boolean admin) {
+        User user = node.getBean(UserRepository.class).findByUsername(username).orElseThrow();
+        if (admin) {
+            user.getRoles().add(new Role(1L, "ROLE_ADMIN"));
+        } else {
+            user.getRoles().clear();
+        }
+        node.getBean(UserManagerService.class).updateUser(user);
+    }
+
+    private static String signingKeyId(KeyUtils keyUtils, Function<KeyUtils, TokenKeySet> keys) {
+        return keys.apply(keyUtils).getSigningKey().keyId();
+    }
+
+    private static String keyId(String token) {
+        try {
+            return SignedJWT.parse(token).getHeader().getKeyID();
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean eventually(Supplier<Boolean> condition) {
+        Instant deadline = Instant.now().plus(PROPAGATION_TIMEOUT);
+        while (Instant.now().isBefore(deadline)) {
+            if (condition.get()) {
+                return true;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static String url(ConfigurableApplicationContext node, String path) {
+        return "http://localhost:" + node.getEnvironment().getProperty("local.server.port") + path;
+    }
+}
@@ -0,0 +1,204 @@
+package br.com.areadigital.areadigital.config;
+
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import br.com.areadigital.areadigital.util.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitFilterTest {
+
+    private static final String LOGIN = "/api/v1/auth/login";
+    private static final String NDJSON = "application/x-ndjson";
+
+    // Tolerância alta: as latências medidas no teste não mudam o limite; só os descartes o reduzem
+    private final AdaptiveConcurrencyLimiter authLimiter = new AdaptiveConcurrencyLimiter("auth", 100, 1, 100, 1000);
+    private final AdaptiveConcurrencyLimiter resourceLimiter = new AdaptiveConcurrencyLimiter("resource", 100, 1, 100, 1000);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(authLimiter, resourceLimiter,
+            new AuthMetrics(new SimpleMeterRegistry()), 7);
+
+    @Test
+    void rejectsAboveLimitWithRetryAfter() throws Exception {
+        AdaptiveConcurrencyLimiter full = new AdaptiveConcurrencyLimiter("auth", 1, 1, 1, 2.0);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(full, resourceLimiter,
+                new AuthMetrics(new SimpleMeterRegistry()), 7);
+        full.tryAcquire();
+        AtomicBoolean called = new AtomicBoolean();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", LOGIN), response, (req, res) -> called.set(true));
+
+        assertThat(called).isFalse();
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("7");
+        assertThat(full.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void usesSeparateLimitersForAuthenticationAndResources() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("POST", LOGIN), new MockHttpServletResponse(), (req, res) -> {
+            assertThat(authLimiter.getInFlight()).isEqualTo(1);
+            assertThat(resourceLimiter.getInFlight()).isZero();
+        });
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users/1"), new MockHttpServletResponse(), (req, res) -> {
+            assertThat(authLimiter.getInFlight()).isZero();
+            assertThat(resourceLimiter.getInFlight()).isEqualTo(1);
+        });
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(), (req, res) -> {
+            assertThat(authLimiter.getInFlight()).isZero();
+            assertThat(resourceLimiter.getInFlight()).isZero();
+        });
+
+        assertThat(authLimiter.getInFlight()).isZero();
+        assertThat(resourceLimiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void serviceUnavailableCountsAsDrop() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            filter.doFilter(new MockHttpServletRequest("POST", LOGIN), new MockHttpServletResponse(),
+                    (req, res) -> ((MockHttpServletResponse) res).setStatus(503));
+        }
+
+        assertThat(authLimiter.getInFlight()).isZero();
+        assertThat(authLimiter.getLimit()).isEqualTo(98);
+    }
+
+    @Test
+    void successClosesTheWindow() throws Exception {
+        dropAuth(9);
+
+        filter.doFilter(new MockHttpServletRequest("POST", LOGIN), new MockHttpServletResponse(), (req, res) -> {
+        });
+
+        assertThat(authLimiter.getLimit()).isEqualTo(98);
+    }
+
+    @Test
+    void ndjsonResponseIsIgnored() throws Exception {
+        dropAuth(9);
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/auth/batch"), new MockHttpServletResponse(),
+                (req, res) -> res.setContentType(NDJSON));
+
+        assertThat(authLimiter.getInFlight()).isZero();
+        assertThat(authLimiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    void exceptionReleasesPermitWithoutSample() {
+        dropAuth(9);
+
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("POST", LOGIN),
+                new MockHttpServletResponse(), (req, res) -> {
+                    throw new ServletException("failed");
+                })).isInstanceOf(ServletException.class);
+
+        assertThat(authLimiter.getInFlight()).isZero();
+        assertThat(authLimiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    void asyncPermitIsReleasedOnceOnComplete() throws Exception {
+        dropAuth(9);
+        MockHttpServletRequest request = asyncRequest(LOGIN);
+
+        filter.doFilter(request, new MockHttpServletResponse(), startAsync());
+        assertThat(authLimiter.getInFlight()).isEqualTo(1);
+
+        MockAsyncContext context = (MockAsyncContext) request.getAsyncContext();
+        context.complete();
+        context.complete();
+
+        assertThat(authLimiter.getInFlight()).isZero();
+        // A conclusão contou uma única amostra, que fechou a janela
+        assertThat(authLimiter.getLimit()).isEqualTo(98);
+        dropAuth(9);
+        assertThat(authLimiter.getLimit()).isEqualTo(98);
+    }
+
+    @Test
+    void asyncTimeoutCountsAsDropAndTheFollowingCompleteIsIgnored() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletRequest request = asyncRequest(LOGIN);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, startAsync());
+
+            MockAsyncContext context = (MockAsyncContext) request.getAsyncContext();
+            for (AsyncListener listener : context.getListeners()) {
+                listener.onTimeout(new AsyncEvent(context, request, response));
+            }
+            assertThat(authLimiter.getInFlight()).isZero();
+            // O contêiner conclui a requisição depois do timeout
+            context.complete();
+            assertThat(authLimiter.getInFlight()).isZero();
+        }
+
+        assertThat(authLimiter.getLimit()).isEqualTo(98);
+    }
+
+    @Test
+    void asyncNdjsonResponseIsIgnored() throws Exception {
+        dropAuth(9);
+        MockHttpServletRequest request = asyncRequest("/api/v1/auth/batch");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.startAsync(req, res);
+            res.setContentType(NDJSON);
+        });
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        assertThat(authLimiter.getInFlight()).isZero();
+        assertThat(authLimiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    void asyncErrorReleasesPermitWithoutSample() throws Exception {
+        dropAuth(9);
+        MockHttpServletRequest request = asyncRequest(LOGIN);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, startAsync());
+
+        MockAsyncContext context = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onError(new AsyncEvent(context, request, response, new IOException("broken pipe")));
+        }
+        context.complete();
+
+        assertThat(authLimiter.getInFlight()).isZero();
+        assertThat(authLimiter.getLimit()).isEqualTo(100);
+    }
+
+    private static MockHttpServletRequest asyncRequest(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private static FilterChain startAsync() {
+        return (req, res) -> req.startAsync(req, res);
+    }
+
+    /**
+     * Descarta vagas diretamente no limitador, deixando a janela a uma amostra de ser fechada.
+     */
+    private void dropAuth(int count) {
+        for (int i = 0; i < count; i++) {
+            authLimiter.tryAcquire().dropped();
+        }
+    }
+}
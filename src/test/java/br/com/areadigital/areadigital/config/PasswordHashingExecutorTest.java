@@ -0,0 +1,74 @@
+package br.com.areadigital.areadigital.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService requests = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void releaseWaiters() {
+        release.countDown();
+        requests.shutdownNow();
+    }
+
+    @Test
+    void rejectsAboveMaxWaiters() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(3, 3, 0, 200);
+
+        List<Future<Boolean>> waiting = occupy(executor, 3);
+
+        assertThatThrownBy(() -> executor.call(() -> true)).isInstanceOf(RejectedExecutionException.class);
+
+        release.countDown();
+        for (Future<Boolean> result : waiting) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(executor.call(() -> true)).isTrue();
+    }
+
+    @Test
+    void maxWaitersStaysBelowHalfTheRequestThreads() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(4, 100, 0, 8);
+
+        occupy(executor, 4);
+
+        assertThatThrownBy(() -> executor.call(() -> true)).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    /**
+     * Ocupa {@code count} vagas com requisições cujo hash fica bloqueado até {@link #release}. O pool precisa ter
+     * {@code count} threads, para que todas as tarefas comecem.
+     */
+    private List<Future<Boolean>> occupy(PasswordHashingExecutor executor, int count) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(count);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(requests.submit(() -> executor.call(() -> {
+                started.countDown();
+                try {
+                    return release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            })));
+        }
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        return results;
+    }
+}
@@ -0,0 +1,217 @@
+package br.com.areadigital.areadigital.service;
+
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import br.com.areadigital.areadigital.model.ChangeType;
+import br.com.areadigital.areadigital.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Com o banco de verdade, para que o uso único dependa da atualização condicional de {@code used}. Sem a transação do
+ * teste: cada operação é confirmada e vista pelas demais threads e pelos demais nós.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final ChangeLogService changeLogService = mock(ChangeLogService.class);
+
+    @AfterEach
+    void deleteTokens() {
+        refreshTokenRepository.deleteAll();
+    }
+
+    @Test
+    void rotatesWithinTheFamily() {
+        RefreshTokenService service = node();
+        String first = service.issue(USER_ID, null, expiresAt());
+
+        String family = service.consume(first, USER_ID);
+        String second = service.issue(USER_ID, family, expiresAt());
+
+        assertThat(family).isEqualTo(first);
+        assertThat(service.consume(second, USER_ID)).isEqualTo(family);
+        assertThat(refreshTokenRepository.findById(first).orElseThrow().isUsed()).isTrue();
+    }
+
+    @Test
+    void secondConsumeOfTheSameTokenRevokesTheFamily() {
+        RefreshTokenService service = node();
+        String first = service.issue(USER_ID, null, expiresAt());
+        String family = service.consume(first, USER_ID);
+        String second = service.issue(USER_ID, family, expiresAt());
+
+        assertThatThrownBy(() -> service.consume(first, USER_ID))
+                .isInstanceOf(InvalidBearerTokenException.class)
+                .hasMessageContaining("already used");
+
+        // O token seguinte, ainda não usado, é revogado junto
+        assertThatThrownBy(() -> service.consume(second, USER_ID)).isInstanceOf(InvalidBearerTokenException.class);
+        assertThat(refreshTokenRepository.findById(second).orElseThrow().isRevoked()).isTrue();
+        verify(changeLogService).append(ChangeType.REFRESH_TOKEN_FAMILY_REVOKED, family);
+    }
+
+    @Test
+    void retryAfterAFailedMarkUsedIsNotAReuse() {
+        RefreshTokenRepository failing = mock(RefreshTokenRepository.class, delegatesTo(refreshTokenRepository));
+        doThrow(new QueryTimeoutException("timeout")).doAnswer(delegatesTo(refreshTokenRepository))
+                .when(failing).markUsed(anyString());
+        RefreshTokenService service = node(failing);
+        String token = service.issue(USER_ID, null, expiresAt());
+
+        assertThatThrownBy(() -> service.consume(token, USER_ID)).isInstanceOf(QueryTimeoutException.class);
+
+        // A nova tentativa do cliente renova normalmente, sem revogar a família
+        assertThat(service.consume(token, USER_ID)).isEqualTo(token);
+        assertThat(refreshTokenRepository.findById(token).orElseThrow().isRevoked()).isFalse();
+        verify(changeLogService, never()).append(any(), any());
+    }
+
+    @Test
+    void concurrentDoubleConsumeLetsExactlyOneWin() throws Exception {
+        RefreshTokenService service = node();
+        for (int i = 0; i < 50; i++) {
+            String token = service.issue(USER_ID, null, expiresAt());
+
+            assertThat(race(() -> service.consume(token, USER_ID), () -> service.consume(token, USER_ID)))
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    void concurrentDoubleConsumeOnTwoNodesLetsExactlyOneWin() throws Exception {
+        RefreshTokenService nodeA = node();
+        RefreshTokenService nodeB = node();
+        for (int i = 0; i < 50; i++) {
+            String token = nodeA.issue(USER_ID, null, expiresAt());
+
+            assertThat(race(() -> nodeA.consume(token, USER_ID), () -> nodeB.consume(token, USER_ID)))
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    void tokenNotYetInTheIndexIsFoundInTheDatabase() {
+        RefreshTokenService nodeA = node();
+        RefreshTokenService nodeB = node();
+        String token = nodeA.issue(USER_ID, null, expiresAt());
+
+        assertThat(nodeB.consume(token, USER_ID)).isEqualTo(token);
+
+        // O índice do nó A ainda não sabe do uso: a atualização condicional no banco detecta a reutilização
+        assertThatThrownBy(() -> nodeA.consume(token, USER_ID))
+                .isInstanceOf(InvalidBearerTokenException.class)
+                .hasMessageContaining("already used");
+        assertThat(refreshTokenRepository.findById(token).orElseThrow().isRevoked()).isTrue();
+    }
+
+    @Test
+    void indexIsLoadedFromTheDatabaseOnStartup() {
+        String used = node().issue(USER_ID, null, expiresAt());
+        String unused = node().issue(USER_ID, null, expiresAt());
+        node().consume(used, USER_ID);
+
+        RefreshTokenService restarted = node();
+
+        assertThat(restarted.consume(unused, USER_ID)).isEqualTo(unused);
+        assertThatThrownBy(() -> restarted.consume(used, USER_ID))
+                .isInstanceOf(InvalidBearerTokenException.class)
+                .hasMessageContaining("already used");
+    }
+
+    @Test
+    void rejectsUnknownRevokedExpiredOrForeignTokens() {
+        RefreshTokenService service = node();
+        String revoked = service.issue(USER_ID, null, expiresAt());
+        service.revoke(revoked, USER_ID);
+        String expired = service.issue(USER_ID, null, Instant.now().minusSeconds(1));
+        String foreign = service.issue(2L, null, expiresAt());
+
+        for (String token : List.of("unknown", revoked, expired, foreign)) {
+            assertThatThrownBy(() -> node().consume(token, USER_ID))
+                    .isInstanceOf(InvalidBearerTokenException.class)
+                    .hasMessageContaining("unknown or revoked");
+        }
+        assertThatThrownBy(() -> service.consume(revoked, USER_ID)).isInstanceOf(InvalidBearerTokenException.class);
+    }
+
+    /**
+     * Um nó: um serviço com o seu próprio índice, carregado do banco como na inicialização.
+     */
+    private RefreshTokenService node() {
+        return node(refreshTokenRepository);
+    }
+
+    private RefreshTokenService node(RefreshTokenRepository repository) {
+        RefreshTokenService service = new RefreshTokenService(repository, changeLogService,
+                new AuthMetrics(new SimpleMeterRegistry()));
+        service.loadIndex();
+        return service;
+    }
+
+    private static Instant expiresAt() {
+        return Instant.now().plus(Duration.ofDays(1));
+    }
+
+    /**
+     * Executa as duas renovações ao mesmo tempo.
+     *
+     * @return quantas foram aceitas.
+     */
+    private static int race(Callable<String> first, Callable<String> second) throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<String>> results = executor.invokeAll(List.of(first, second).stream()
+                    .<Callable<String>>map(consume -> () -> {
+                        barrier.await();
+                        return consume.call();
+                    })
+                    .toList());
+            int accepted = 0;
+            for (Future<String> result : results) {
+                try {
+                    result.get();
+                    accepted++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(InvalidBearerTokenException.class);
+                }
+            }
+            return accepted;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
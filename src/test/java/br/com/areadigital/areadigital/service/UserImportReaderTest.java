@@ -0,0 +1,112 @@
+package br.com.areadigital.areadigital.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserImportReaderTest {
+
+    @Test
+    void readsNdjsonSkippingBlankLines() throws IOException {
+        List<UserImportReader.Record> records = readAll(UserImportReader.ndjson(input("""
+                {"username": "alice", "password": "a"}
+
+                {"username": "bob", "password": "b"}
+                """), new ObjectMapper()));
+
+        assertThat(records).extracting(UserImportReader.Record::line).containsExactly(1, 3);
+        assertThat(records.get(0).user().getUsername()).isEqualTo("alice");
+        assertThat(records.get(0).user().getPassword()).isEqualTo("a");
+        assertThat(records.get(1).user().getUsername()).isEqualTo("bob");
+    }
+
+    @Test
+    void malformedNdjsonLineHasNoUser() throws IOException {
+        List<UserImportReader.Record> records = readAll(UserImportReader.ndjson(input("""
+                {"username": "alice", "password": "a"}
+                {"username": "bob",
+                {"username": "carol", "password": "c"}
+                """), new ObjectMapper()));
+
+        assertThat(records).extracting(UserImportReader.Record::line).containsExactly(1, 2, 3);
+        assertThat(records.get(1).user()).isNull();
+        assertThat(records.get(2).user().getUsername()).isEqualTo("carol");
+    }
+
+    @Test
+    void readsCsvColumnsInAnyOrder() throws IOException {
+        List<UserImportReader.Record> records = readAll(UserImportReader.csv(input("""
+                Password,email,USERNAME
+                a,alice@example.com,alice
+                b,,bob
+                """)));
+
+        assertThat(records).extracting(UserImportReader.Record::line).containsExactly(2, 3);
+        assertThat(records.get(0).user().getUsername()).isEqualTo("alice");
+        assertThat(records.get(0).user().getPassword()).isEqualTo("a");
+        assertThat(records.get(1).user().getUsername()).isEqualTo("bob");
+        assertThat(records.get(1).user().getPassword()).isEqualTo("b");
+    }
+
+    @Test
+    void readsQuotedCsvFields() throws IOException {
+        List<UserImportReader.Record> records = readAll(UserImportReader.csv(input("""
+                username,password
+                "alice","a,b"
+                bob,"say ""hi""\"
+                "",""
+                """)));
+
+        assertThat(records.get(0).user().getUsername()).isEqualTo("alice");
+        assertThat(records.get(0).user().getPassword()).isEqualTo("a,b");
+        assertThat(records.get(1).user().getPassword()).isEqualTo("say \"hi\"");
+        assertThat(records.get(2).user().getUsername()).isEmpty();
+        assertThat(records.get(2).user().getPassword()).isEmpty();
+    }
+
+    @Test
+    void malformedCsvLineHasNoUser() throws IOException {
+        List<UserImportReader.Record> records = readAll(UserImportReader.csv(input("""
+                username,password
+                alice
+                "bob,b
+                carol,c
+                """)));
+
+        assertThat(records).extracting(UserImportReader.Record::line).containsExactly(2, 3, 4);
+        // Colunas faltando e aspas sem fechamento
+        assertThat(records.get(0).user()).isNull();
+        assertThat(records.get(1).user()).isNull();
+        assertThat(records.get(2).user().getUsername()).isEqualTo("carol");
+    }
+
+    @Test
+    void rejectsCsvWithoutRequiredColumns() {
+        assertThatThrownBy(() -> UserImportReader.csv(input("username,email\nalice,alice@example.com\n")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> UserImportReader.csv(input("")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<UserImportReader.Record> readAll(UserImportReader reader) throws IOException {
+        List<UserImportReader.Record> records = new ArrayList<>();
+        UserImportReader.Record record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,124 @@
+package br.com.areadigital.areadigital.service;
+
+import br.com.areadigital.areadigital.dto.UserImportErrorDTO;
+import br.com.areadigital.areadigital.dto.UserImportSummaryDTO;
+import br.com.areadigital.areadigital.model.User;
+import br.com.areadigital.areadigital.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.doReturn;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-import;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "token-store.directory=",
+        "warm-up.enabled=false"
+})
+class UserImportServiceTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @SpyBean
+    private UsernameFilterService usernameFilter;
+
+    @Test
+    void rejectsDuplicatesExistingUsernamesAndMalformedLines() throws IOException {
+        createUser("checked-existing");
+        List<UserImportErrorDTO> errors = new ArrayList<>();
+
+        UserImportSummaryDTO summary = userImportService.importUsers(reader("""
+                {"username": "checked-a", "password": "pw"}
+                {"username": "checked-b",
+                {"username": "checked-a", "password": "other"}
+                {"username": "checked-existing", "password": "pw"}
+                {"username": "checked-c"}
+                {"username": "checked-d", "password": "pw"}
+                """), null, errors::add);
+
+        assertThat(summary.getCreated()).isEqualTo(2);
+        assertThat(summary.getFailed()).isEqualTo(4);
+        assertThat(errors).extracting(UserImportErrorDTO::getLine, UserImportErrorDTO::getUsername, UserImportErrorDTO::getError)
+                .containsExactlyInAnyOrder(
+                        tuple(2, null, UserImportService.INVALID_RECORD),
+                        tuple(3, "checked-a", UserImportService.DUPLICATE_USERNAME),
+                        tuple(4, "checked-existing", UserImportService.DUPLICATE_USERNAME),
+                        tuple(5, "checked-c", UserImportService.INVALID_RECORD));
+        assertThat(userRepository.existsByUsername("checked-a")).isTrue();
+        assertThat(userRepository.existsByUsername("checked-d")).isTrue();
+        assertThat(usernameFilter.mightExist("checked-d")).isTrue();
+    }
+
+    @Test
+    void chunkFailureFallsBackToOneTransactionPerUser() throws IOException {
+        createUser("fallback-existing");
+        // O username cadastrado escapa da consulta de duplicados, como se tivesse sido cadastrado durante a importação
+        doReturn(false).when(usernameFilter).mightExist("fallback-existing");
+        List<UserImportErrorDTO> errors = new ArrayList<>();
+
+        // Como na requisição, com o EntityManager do open-in-view associado à thread
+        EntityManager openInView = entityManagerFactory.createEntityManager();
+        EntityManagerHolder holder = new EntityManagerHolder(openInView);
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, holder);
+        UserImportSummaryDTO summary;
+        try {
+            summary = userImportService.importUsers(reader("""
+                    {"username": "fallback-a", "password": "pw"}
+                    {"username": "fallback-existing", "password": "pw"}
+                    {"username": "fallback-b", "password": "pw"}
+                    """), "acme", errors::add);
+
+            assertThat(TransactionSynchronizationManager.getResource(entityManagerFactory)).isSameAs(holder);
+            // Os usuários gravados pela importação não ficam no contexto de persistência da requisição
+            assertThat(openInView.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            openInView.close();
+        }
+
+        assertThat(summary.getCreated()).isEqualTo(2);
+        assertThat(summary.getFailed()).isEqualTo(1);
+        assertThat(errors).extracting(UserImportErrorDTO::getLine, UserImportErrorDTO::getError)
+                .containsExactly(tuple(2, UserImportService.DUPLICATE_USERNAME));
+        assertThat(userRepository.findByUsername("fallback-a").orElseThrow().getTenantId()).isEqualTo("acme");
+        assertThat(userRepository.findByUsername("fallback-b").orElseThrow().getTenantId()).isEqualTo("acme");
+        assertThat(userRepository.findByUsername("fallback-existing").orElseThrow().getTenantId()).isNull();
+    }
+
+    private void createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hash");
+        userRepository.save(user);
+    }
+
+    private UserImportReader reader(String ndjson) {
+        return UserImportReader.ndjson(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), objectMapper);
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.areadigital.areadigital.service;
+
+import br.com.areadigital.areadigital.config.metrics.AuthMetrics;
+import br.com.areadigital.areadigital.model.ChangeType;
+import br.com.areadigital.areadigital.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UsernameFilterServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ChangeLogService changeLogService = mock(ChangeLogService.class);
+
+    @Test
+    void removingUserCreatedOnAnotherNodeKeepsCollidingUsernames() {
+        // Filtro mínimo: um único username ocupa boa parte dos contadores, o que torna fácil achar um falso positivo
+        when(userRepository.findUsernamesAfter(eq(""), any())).thenReturn(List.of("alice"));
+        UsernameFilterService service = new UsernameFilterService(userRepository,
+                new AuthMetrics(new SimpleMeterRegistry()), changeLogService, 1, 0.5);
+        String collision = IntStream.range(0, 100_000)
+                .mapToObj(i -> "user" + i)
+                .filter(service::mightExist)
+                .findFirst()
+                .orElseThrow();
+
+        service.apply(ChangeType.USER_CREATED, collision);
+        service.removed(collision);
+
+        assertThat(service.mightExist("alice")).isTrue();
+    }
+
+    @Test
+    void publishesCreatedUsersToOtherNodes() {
+        when(userRepository.findUsernamesAfter(eq(""), any())).thenReturn(List.of());
+        UsernameFilterService service = new UsernameFilterService(userRepository,
+                new AuthMetrics(new SimpleMeterRegistry()), changeLogService, 1000, 0.01);
+
+        service.added("alice");
+        service.addedAll(List.of("bob", "carol"));
+
+        assertThat(service.mightExist("alice")).isTrue();
+        assertThat(service.mightExist("bob")).isTrue();
+        assertThat(service.mightExist("carol")).isTrue();
+        verify(changeLogService).append(ChangeType.USER_CREATED, "alice");
+        verify(changeLogService).appendAll(ChangeType.USER_CREATED, List.of("bob", "carol"));
+    }
+}
@@ -0,0 +1,148 @@
+package br.com.areadigital.areadigital.util;
+
+import br.com.areadigital.areadigital.util.AdaptiveConcurrencyLimiter.Permit;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void rejectsAboveLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 2.0);
+        Permit first = limiter.tryAcquire();
+        Permit second = limiter.tryAcquire();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(limiter.tryAcquire()).isNull();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+
+        first.success();
+        assertThat(limiter.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    void releasesPermitOnlyOnce() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 2.0);
+        Permit permit = limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        permit.success();
+        permit.dropped();
+        permit.ignore();
+        permit.success();
+
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void growsWhileLatencyHoldsAndTheLimitIsInUse() {
+        // Tolerância alta: a variação das latências medidas no teste não reduz o limite
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 36, 1, 100, 1000);
+        int previous = limiter.getLimit();
+
+        fillAndRelease(limiter);
+        assertThat(limiter.getLimit()).isGreaterThan(previous);
+
+        for (int i = 0; i < 100 && limiter.getLimit() < 100; i++) {
+            fillAndRelease(limiter);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(100);
+        fillAndRelease(limiter);
+        assertThat(limiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    void doesNotGrowWhenLessThanHalfTheLimitIsInUse() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 36, 1, 100, 1000);
+
+        for (int i = 0; i < 30; i++) {
+            limiter.tryAcquire().success();
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(36);
+    }
+
+    @Test
+    void shrinksWhenLatencyRises() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 100, 1, 100, 1.0);
+        // Uma janela rápida define a latência de longo prazo
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire().success();
+        }
+        assertThat(limiter.getLimit()).isEqualTo(100);
+
+        for (int i = 0; i < 10; i++) {
+            Permit permit = limiter.tryAcquire();
+            Thread.sleep(5);
+            permit.success();
+        }
+
+        // Latência muito acima da de longo prazo: gradiente de 0,5, suavizado
+        assertThat(limiter.getLimit()).isBetween(90, 99);
+    }
+
+    @Test
+    void backsOffOnDropsDownToTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 100, 5, 100, 2.0);
+
+        drop(limiter, 9);
+        assertThat(limiter.getLimit()).isEqualTo(100);
+        drop(limiter, 1);
+        assertThat(limiter.getLimit()).isEqualTo(98);
+
+        drop(limiter, 10_000);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void ignoredPermitsDoNotCloseTheWindow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 100, 5, 100, 2.0);
+
+        drop(limiter, 9);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire().ignore();
+        }
+        assertThat(limiter.getLimit()).isEqualTo(100);
+
+        drop(limiter, 1);
+        assertThat(limiter.getLimit()).isEqualTo(98);
+    }
+
+    @Test
+    void validatesBounds() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter("test", 10, 0, 10, 2.0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter("test", 10, 20, 10, 2.0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter("test", 10, 1, 10, 0.5))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(new AdaptiveConcurrencyLimiter("test", 1000, 1, 10, 2.0).getLimit()).isEqualTo(10);
+    }
+
+    /**
+     * Ocupa todas as vagas e as libera, da última para a primeira, para que cada janela registre o limite inteiro em
+     * uso.
+     */
+    private static void fillAndRelease(AdaptiveConcurrencyLimiter limiter) {
+        List<Permit> permits = new ArrayList<>();
+        Permit permit;
+        while ((permit = limiter.tryAcquire()) != null) {
+            permits.add(permit);
+        }
+        for (int i = permits.size() - 1; i >= 0; i--) {
+            permits.get(i).success();
+        }
+    }
+
+    private static void drop(AdaptiveConcurrencyLimiter limiter, int count) {
+        for (int i = 0; i < count; i++) {
+            limiter.tryAcquire().dropped();
+        }
+    }
+}
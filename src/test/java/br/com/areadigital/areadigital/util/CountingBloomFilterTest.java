@@ -0,0 +1,129 @@
+package br.com.areadigital.areadigital.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountingBloomFilterTest {
+
+    @Test
+    void findsEveryAddedValue() {
+        CountingBloomFilter filter = new CountingBloomFilter(1000, 0.01);
+        IntStream.range(0, 1000).forEach(i -> filter.add("user" + i));
+
+        assertThat(IntStream.range(0, 1000)).allMatch(i -> filter.mightContain("user" + i));
+        assertThat(filter.size()).isEqualTo(1000);
+    }
+
+    @Test
+    void removeUndoesAdd() {
+        CountingBloomFilter filter = new CountingBloomFilter(1000, 0.01);
+        filter.add("alice");
+        filter.add("alice");
+
+        assertThat(filter.remove("alice")).isTrue();
+        assertThat(filter.mightContain("alice")).isTrue();
+        assertThat(filter.remove("alice")).isTrue();
+        assertThat(filter.mightContain("alice")).isFalse();
+        assertThat(filter.remove("alice")).isFalse();
+        assertThat(filter.size()).isZero();
+        assertThat(nonZeroCounters(filter)).isEmpty();
+    }
+
+    @Test
+    void counterBelowSaturationIsFullyRemoved() {
+        CountingBloomFilter filter = new CountingBloomFilter(1000, 0.01);
+        for (int i = 0; i < 14; i++) {
+            filter.add("alice");
+        }
+        for (int i = 0; i < 14; i++) {
+            filter.remove("alice");
+        }
+
+        assertThat(filter.mightContain("alice")).isFalse();
+    }
+
+    @Test
+    void saturatedCounterStaysAfterRemove() {
+        CountingBloomFilter filter = new CountingBloomFilter(1000, 0.01);
+        for (int i = 0; i < 20; i++) {
+            filter.add("alice");
+        }
+        for (int i = 0; i < 20; i++) {
+            filter.remove("alice");
+        }
+
+        // Um contador saturado não é decrementado: sobra um falso positivo, nunca um falso negativo
+        assertThat(filter.mightContain("alice")).isTrue();
+        assertThat(nonZeroCounters(filter)).isNotEmpty().allMatch(counter -> counter == 15);
+    }
+
+    @Test
+    void saturatedCounterDoesNotCarryIntoItsNeighbour() {
+        CountingBloomFilter filter = new CountingBloomFilter(1000, 0.01);
+        for (int i = 0; i < 100; i++) {
+            filter.add("alice");
+        }
+
+        int hashFunctions = (int) ReflectionTestUtils.getField(filter, "hashFunctions");
+        assertThat(nonZeroCounters(filter)).hasSizeLessThanOrEqualTo(hashFunctions).allMatch(counter -> counter == 15);
+    }
+
+    @Test
+    void concurrentAddsAndRemovesLoseNoUpdate() throws Exception {
+        // Um filtro pequeno faz as threads disputarem as mesmas palavras de contadores
+        CountingBloomFilter filter = new CountingBloomFilter(2000, 0.01);
+        int threads = 4;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            run(executor, threads, t -> IntStream.range(0, perThread).forEach(i -> filter.add(t + "-" + i)));
+            assertThat(filter.size()).isEqualTo(threads * perThread);
+            for (int t = 0; t < threads; t++) {
+                for (int i = 0; i < perThread; i++) {
+                    assertThat(filter.mightContain(t + "-" + i)).isTrue();
+                }
+            }
+
+            run(executor, threads, t -> IntStream.range(0, perThread).forEach(i -> filter.remove(t + "-" + i)));
+            assertThat(filter.size()).isZero();
+            assertThat(nonZeroCounters(filter)).isEmpty();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void run(ExecutorService executor, int threads, IntConsumer task) throws Exception {
+        List<Future<?>> futures = IntStream.range(0, threads)
+                .<Future<?>>mapToObj(t -> executor.submit(() -> task.accept(t)))
+                .toList();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private static List<Long> nonZeroCounters(CountingBloomFilter filter) {
+        AtomicLongArray counters = (AtomicLongArray) ReflectionTestUtils.getField(filter, "counters");
+        List<Long> nonZero = new ArrayList<>();
+        for (int word = 0; word < counters.length(); word++) {
+            long value = counters.get(word);
+            for (int shift = 0; shift < Long.SIZE; shift += 4) {
+                long counter = (value >>> shift) & 0xF;
+                if (counter != 0) {
+                    nonZero.add(counter);
+                }
+            }
+        }
+        return nonZero;
+    }
+}
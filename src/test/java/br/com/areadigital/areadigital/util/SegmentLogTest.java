@@ -0,0 +1,257 @@
+package br.com.areadigital.areadigital.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentLogTest {
+
+    private static final int SEGMENT_SIZE = 256;
+    private static final long NOW = 1_000;
+    private static final long LIVE = 2_000;
+    private static final long EXPIRED = 500;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysRecordsAfterReopen() throws IOException {
+        List<Long> addresses = new ArrayList<>();
+        try (SegmentLog log = new SegmentLog(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 10; i++) {
+                addresses.add(log.append((byte) (i % 3), LIVE + i, "key-" + i, value(i)));
+            }
+            assertThat(log.segmentCount()).isGreaterThan(1);
+        }
+
+        try (SegmentLog log = new SegmentLog(directory, SEGMENT_SIZE)) {
+            List<SegmentLog.Record> records = new ArrayList<>();
+            log.replay(records::add);
+
+            assertThat(records).hasSize(10);
+            for (int i = 0; i < 10; i++) {
+                SegmentLog.Record record = records.get(i);
+                assertThat(record.address()).isEqualTo(addresses.get(i));
+                assertThat(record.type()).isEqualTo((byte) (i % 3));
+                assertThat(record.expiresAt()).isEqualTo(LIVE + i);
+                assertThat(record.key()).isEqualTo("key-" + i);
+                assertThat(bytes(record.value())).isEqualTo(value(i));
+                assertThat(log.read(addresses.get(i)).key()).isEqualTo("key-" + i);
+            }
+
+            // As gravações continuam depois do último registro
+            long address = log.append((byte) 0, LIVE, "key-10", value(10));
+            assertThat(address).isGreaterThan(addresses.get(9));
+            assertThat(log.read(address).key()).isEqualTo("key-10");
+        }
+    }
+
+    @Test
+    void refusesDirectoryInUse() throws IOException {
+        try (SegmentLog ignored = new SegmentLog(directory, SEGMENT_SIZE)) {
+            assertThatThrownBy(() -> new SegmentLog(directory, SEGMENT_SIZE))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void discardsAndZeroesCorruptLastRecord() throws IOException {
+        long last = appendThree();
+        int offset = (int) last;
+        // Um byte do valor alterado: o CRC não confere
+        try (FileChannel channel = FileChannel.open(segmentFile(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), offset + 22);
+        }
+
+        assertRecoversFirstTwo(offset);
+    }
+
+    @Test
+    void discardsAndZeroesTruncatedLastRecord() throws IOException {
+        long last = appendThree();
+        int offset = (int) last;
+        // Processo interrompido com o tamanho gravado, mas não o restante do registro
+        try (FileChannel channel = FileChannel.open(segmentFile(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[SEGMENT_SIZE - offset - 4]), offset + 4);
+        }
+
+        assertRecoversFirstTwo(offset);
+    }
+
+    @Test
+    void compactionRelocatesLiveRecordsAndDropsRevokedAndExpired() throws IOException {
+        try (SegmentLog log = new SegmentLog(directory, SEGMENT_SIZE)) {
+            Map<String, Long> index = new HashMap<>();
+            for (String key : List.of("live-1", "revoked", "expired", "live-2")) {
+                index.put(key, log.append((byte) 0, key.equals("expired") ? EXPIRED : LIVE, key, value(1)));
+            }
+            fillFirstSegment(log, index, EXPIRED);
+            Set<String> revoked = Set.of("revoked");
+            List<String> relocated = new ArrayList<>();
+
+            int dropped = log.compact(NOW, 1.0, new SegmentLog.Compaction() {
+                @Override
+                public boolean isLive(SegmentLog.Record record) {
+                    return !revoked.contains(record.key());
+                }
+
+                @Override
+                public void relocate(SegmentLog.Record record) {
+                    relocated.add(record.key());
+                    index.put(record.key(), log.copy(record));
+                }
+            });
+
+            assertThat(dropped).isEqualTo(1);
+            assertThat(relocated).containsExactly("live-1", "live-2");
+            for (String key : relocated) {
+                SegmentLog.Record record = log.read(index.get(key));
+                assertThat(index.get(key) >>> 32).isPositive();
+                assertThat(record.key()).isEqualTo(key);
+                assertThat(record.expiresAt()).isEqualTo(LIVE);
+                assertThat(bytes(record.value())).isEqualTo(value(1));
+            }
+            assertThat(log.read(index.get("revoked"))).isNull();
+            assertThat(log.read(index.get("expired"))).isNull();
+            assertThat(Files.exists(segmentFile())).isFalse();
+        }
+
+        try (SegmentLog log = new SegmentLog(directory, SEGMENT_SIZE)) {
+            List<String> keys = new ArrayList<>();
+            log.replay(record -> keys.add(record.key()));
+            assertThat(keys).containsExactly("filler", "live-1", "live-2");
+        }
+    }
+
+    @Test
+    void keepsSegmentWithEnoughLiveRecords() throws IOException {
+        try (SegmentLog log = new SegmentLog(null, SEGMENT_SIZE)) {
+            Map<String, Long> index = new HashMap<>();
+            index.put("live", log.append((byte) 0, LIVE, "live", value(1)));
+            fillFirstSegment(log, index, LIVE);
+
+            int dropped = log.compact(NOW, 0.1, new RejectingCompaction());
+
+            assertThat(dropped).isZero();
+            assertThat(log.read(index.get("live")).key()).isEqualTo("live");
+        }
+    }
+
+    @Test
+    void dropsExpiredSegmentWithoutRelocating() throws IOException {
+        try (SegmentLog log = new SegmentLog(null, SEGMENT_SIZE)) {
+            long address = log.append((byte) 0, EXPIRED, "expired", value(1));
+            Map<String, Long> index = new HashMap<>();
+            fillFirstSegment(log, index, EXPIRED);
+            long filler = index.get("filler");
+
+            int dropped = log.compact(NOW, 0.1, new RejectingCompaction());
+
+            assertThat(dropped).isEqualTo(1);
+            assertThat(log.read(address)).isNull();
+            assertThat(log.read(filler)).isNotNull();
+            assertThat(log.segmentCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void readReturnsNullPastTheLastRecord() throws IOException {
+        try (SegmentLog log = new SegmentLog(null, SEGMENT_SIZE)) {
+            log.append((byte) 0, LIVE, "key", value(1));
+
+            assertThat(log.read(log.bytes())).isNull();
+            assertThat(log.read(1L << 32)).isNull();
+        }
+    }
+
+    /**
+     * Grava três registros no primeiro segmento e fecha o log.
+     *
+     * @return o endereço do terceiro.
+     */
+    private long appendThree() throws IOException {
+        try (SegmentLog log = new SegmentLog(directory, SEGMENT_SIZE)) {
+            log.append((byte) 0, LIVE, "k1", value(1));
+            log.append((byte) 0, LIVE, "k2", value(2));
+            return log.append((byte) 0, LIVE, "k3", value(3));
+        }
+    }
+
+    private void assertRecoversFirstTwo(int offset) throws IOException {
+        try (SegmentLog log = new SegmentLog(directory, SEGMENT_SIZE)) {
+            List<String> keys = new ArrayList<>();
+            log.replay(record -> keys.add(record.key()));
+            assertThat(keys).containsExactly("k1", "k2");
+            assertThat(log.bytes()).isEqualTo(offset);
+
+            byte[] file = Files.readAllBytes(segmentFile());
+            for (int i = offset; i < file.length; i++) {
+                assertThat(file[i]).as("byte %d", i).isZero();
+            }
+
+            // O próximo registro ocupa o lugar do descartado
+            assertThat((int) log.append((byte) 0, LIVE, "k4", value(4))).isEqualTo(offset);
+        }
+        try (SegmentLog log = new SegmentLog(directory, SEGMENT_SIZE)) {
+            List<String> keys = new ArrayList<>();
+            log.replay(record -> keys.add(record.key()));
+            assertThat(keys).containsExactly("k1", "k2", "k4");
+        }
+    }
+
+    /**
+     * Grava até o primeiro segmento deixar de ser o ativo, que a compactação não considera.
+     */
+    private static void fillFirstSegment(SegmentLog log, Map<String, Long> index, long expiresAt) {
+        long address;
+        do {
+            address = log.append((byte) 0, expiresAt, "filler", value(0));
+        } while (address >>> 32 == 0);
+        index.put("filler", address);
+    }
+
+    private Path segmentFile() {
+        return directory.resolve("0000000000.seg");
+    }
+
+    private static byte[] value(int i) {
+        return ("value-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Falha se algum registro for realocado.
+     */
+    private static final class RejectingCompaction implements SegmentLog.Compaction {
+
+        @Override
+        public boolean isLive(SegmentLog.Record record) {
+            return true;
+        }
+
+        @Override
+        public void relocate(SegmentLog.Record record) {
+            throw new AssertionError("Registro realocado: " + record.key());
+        }
+    }
+}